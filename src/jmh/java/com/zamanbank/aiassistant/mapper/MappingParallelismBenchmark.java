@@ -0,0 +1,120 @@
+package com.zamanbank.aiassistant.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.service.TransactionCategoryService;
+import com.zamanbank.aiassistant.service.TransactionClassifierService;
+import com.zamanbank.aiassistant.service.UserCategoryRuleService;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import com.zamanbank.aiassistant.service.categorization.MerchantCategoryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * Последовательная и параллельная разметка пачки транзакций в зависимости от ее размера.
+ * По точке, где параллельный вариант начинает выигрывать, выбирается
+ * {@code app.mapper.parallel.threshold}. При {@code merchantCacheSize = 0} каждая строка
+ * проходит полный набор правил, что моделирует более тяжелую категоризацию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingParallelismBenchmark {
+
+  private static final String[] MERCHANTS = {
+    "MAGNUM CASH&CARRY", "YANDEX.GO", "SMALL", "SULPAK", "APTEKA PLUS", "KINOPARK 8",
+    "AIR ASTANA", "LEROY MERLIN", "NETFLIX.COM", "ZARA", "ALSECO", "ИП КАРИМОВ"
+  };
+  private static final String[] CITIES = {"ALMATY", "ASTANA", "SHYMKENT", "KZ"};
+
+  @Param({"64", "128", "256", "512", "1024", "4096", "20000"})
+  private int rows;
+
+  @Param({"100000", "0"})
+  private long merchantCacheSize;
+
+  private BankStatementMapper mapper;
+  private KeywordCategorizer userRules;
+  private User user;
+  private List<BankTransaction> transactions;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    TransactionCategoryService categoryService =
+      new TransactionCategoryService(new DefaultResourceLoader(), new ObjectMapper(), event -> { },
+        new TransactionClassifierService(null, null));
+    setField(categoryService, "rulesLocation", "classpath:categorization/rules.json");
+    invoke(categoryService, "loadRules");
+
+    MerchantCategoryCache merchantCategoryCache =
+      new MerchantCategoryCache(categoryService, new SimpleMeterRegistry());
+    setField(merchantCategoryCache, "maxSize", merchantCacheSize);
+    invoke(merchantCategoryCache, "initCache");
+
+    // Репозиторий не нужен: правила пользователя передаются напрямую
+    mapper = new BankStatementMapper(merchantCategoryCache, new UserCategoryRuleService(null));
+    mapper.initMappingPool();
+    userRules = new KeywordCategorizer(List.of());
+    user = new User();
+
+    Random random = new Random(42);
+    transactions = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      String description = "Покупка " + MERCHANTS[random.nextInt(MERCHANTS.length)] + " "
+        + CITIES[random.nextInt(CITIES.length)] + " " + (100000 + random.nextInt(900000));
+      transactions.add(BankTransaction.builder()
+        .operationDate(LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28)))
+        .description(description)
+        .amount(BigDecimal.valueOf(random.nextInt(5_000_000), 2))
+        .currency("KZT")
+        .type(random.nextInt(10) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+        .build());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    mapper.shutdownMappingPool();
+  }
+
+  @Benchmark
+  public Object sequential() {
+    return mapper.mapSequential(transactions, user, userRules);
+  }
+
+  @Benchmark
+  public Object parallel() {
+    return mapper.mapParallel(transactions, user, userRules);
+  }
+
+  private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  private static void invoke(Object target, String name) throws ReflectiveOperationException {
+    Method method = target.getClass().getDeclaredMethod(name);
+    method.setAccessible(true);
+    method.invoke(target);
+  }
+}
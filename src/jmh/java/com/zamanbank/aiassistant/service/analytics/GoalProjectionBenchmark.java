@@ -0,0 +1,58 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Время прогноза одной цели в зависимости от числа путей и потоков пула.
+ * Цель рассчитана примерно на два года взносов, горизонт - 20 лет, как в настройках по умолчанию.
+ * По результатам выбираются {@code app.goals.projection.paths} и {@code threads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GoalProjectionBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int paths;
+
+    // 0 - по числу ядер
+    @Param({"1", "0"})
+    private int threads;
+
+    private ForkJoinPool pool;
+    private GoalProjectionSimulator simulator;
+    private double[] contributions;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        simulator = new GoalProjectionSimulator(pool);
+
+        Random random = new Random(42);
+        contributions = new double[12];
+        for (int i = 0; i < contributions.length; i++) {
+            contributions[i] = Math.max(0, 120_000 + random.nextGaussian() * 60_000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object simulate() {
+        return simulator.simulate(3_000_000, contributions, paths, 240, 42);
+    }
+}
@@ -0,0 +1,143 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Сравнение разбора строк выписки: прежний вариант на регулярных выражениях
+ * против {@link TransactionLineScanner}. Перед замером проверяется, что результаты совпадают.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionLineParsingBenchmark {
+
+  private static final String[] DESCRIPTIONS = {
+    "Покупка MAGNUM CASH&CARRY ALMATY",
+    "Перевод на карту Kaspi Gold",
+    "Пополнение счета",
+    "Оплата YANDEX.GO",
+    "Снятие наличных ATM HALYK 004512"
+  };
+
+  private List<String> lines;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    lines = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      if (i % 10 == 0) {
+        // Служебные строки таблицы, которые не являются транзакциями
+        lines.add("Дата проведения операции Описание Сумма");
+        continue;
+      }
+      String date = String.format("%02d.%02d.2024", 1 + random.nextInt(28), 1 + random.nextInt(12));
+      String amount = (random.nextBoolean() ? "-" : "") + random.nextInt(500_000) + ","
+        + String.format("%02d", random.nextInt(100));
+      lines.add(date + " " + DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " " + amount);
+    }
+
+    for (String line : lines) {
+      boolean legacyMatch = LegacyRegexParser.isTransactionLine(line);
+      if (legacyMatch != TransactionLineScanner.isTransactionLine(line)
+        || (legacyMatch && !Objects.equals(LegacyRegexParser.parseTransactionLine(line),
+          TransactionLineScanner.parseTransactionLine(line)))) {
+        throw new IllegalStateException("Результаты разбора расходятся для строки: " + line);
+      }
+    }
+  }
+
+  @Benchmark
+  public void legacyRegex(Blackhole blackhole) {
+    for (String line : lines) {
+      if (LegacyRegexParser.isTransactionLine(line)) {
+        blackhole.consume(LegacyRegexParser.parseTransactionLine(line));
+      }
+    }
+  }
+
+  @Benchmark
+  public void scanner(Blackhole blackhole) {
+    for (String line : lines) {
+      if (TransactionLineScanner.isTransactionLine(line)) {
+        blackhole.consume(TransactionLineScanner.parseTransactionLine(line));
+      }
+    }
+  }
+
+  /**
+   * Прежняя реализация из BankStatementPdfParserService, сохраненная для сравнения.
+   */
+  private static final class LegacyRegexParser {
+
+    static boolean isTransactionLine(String line) {
+      return line.matches("\\d{2}\\.\\d{2}\\.\\d{4}.*\\d+,\\d+");
+    }
+
+    static BankTransaction parseTransactionLine(String line) {
+      String[] parts = line.split("\\s+");
+      if (parts.length < 4) {
+        return null;
+      }
+
+      LocalDate operationDate = parseDate(parts[0]);
+
+      StringBuilder description = new StringBuilder();
+      for (int i = 1; i < parts.length - 1; i++) {
+        if (!parts[i].matches("-?\\d+,\\d+")) {
+          description.append(parts[i]).append(" ");
+        }
+      }
+
+      BigDecimal amount = parseAmount(parts[parts.length - 1]);
+      TransactionType type = amount.compareTo(BigDecimal.ZERO) > 0
+        ? TransactionType.INCOME
+        : TransactionType.EXPENSE;
+
+      return BankTransaction.builder()
+        .operationDate(operationDate)
+        .processingDate(operationDate)
+        .description(description.toString().trim())
+        .amount(amount.abs())
+        .currency("KZT")
+        .type(type)
+        .build();
+    }
+
+    static BigDecimal parseAmount(String amountStr) {
+      if (amountStr == null || amountStr.trim().isEmpty()) {
+        return BigDecimal.ZERO;
+      }
+      try {
+        return new BigDecimal(amountStr.replaceAll("\\s+", "").replace(",", "."));
+      } catch (NumberFormatException e) {
+        return BigDecimal.ZERO;
+      }
+    }
+
+    static LocalDate parseDate(String dateStr) {
+      try {
+        return LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+      } catch (Exception e) {
+        return LocalDate.now();
+      }
+    }
+  }
+}
@@ -3,16 +3,15 @@ package com.zamanbank.aiassistant.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 
 @Configuration
 public class FileUploadConfig {
     
+    // Лимиты и порог записи на диск задаются в spring.servlet.multipart.*:
+    // при file-size-threshold=0 контейнер пишет части сразу во временный файл, минуя heap
     @Bean
     public MultipartResolver multipartResolver() {
-        CommonsMultipartResolver resolver = new CommonsMultipartResolver();
-        resolver.setMaxUploadSize(10 * 1024 * 1024); // 10MB
-        resolver.setMaxInMemorySize(1024 * 1024); // 1MB
-        resolver.setDefaultEncoding("UTF-8");
-        return resolver;
+        return new StandardServletMultipartResolver();
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,36 @@
 package com.zamanbank.aiassistant.controller;
 
-import com.zamanbank.aiassistant.dto.bank.BankStatement;
-import com.zamanbank.aiassistant.mapper.BankStatementMapper;
-import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.dto.bank.IngestionJobResponse;
+import com.zamanbank.aiassistant.model.ImportedStatement;
 import com.zamanbank.aiassistant.model.User;
-import com.zamanbank.aiassistant.model.enums.TransactionType;
-import com.zamanbank.aiassistant.service.TransactionService;
+import com.zamanbank.aiassistant.service.StatementIngestionService;
 import com.zamanbank.aiassistant.service.UserService;
 import com.zamanbank.aiassistant.service.parser.BankStatementParserService;
 import io.swagger.v3.oas.annotations.Operation;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -34,16 +44,19 @@ import org.springframework.web.multipart.MultipartFile;
 public class BankStatementController {
 
   private final BankStatementParserService parserService;
-  private final BankStatementMapper mapper;
-  private final TransactionService transactionService;
+  private final StatementIngestionService ingestionService;
   private final UserService userService;
 
+  @Value("${app.temp.directory:temp}")
+  private String tempDirectory;
+
   @PostMapping("/upload")
   @Operation(summary = "Загрузить банковскую выписку")
   public ResponseEntity<Map<String, Object>> uploadStatement(
     @RequestParam("file") MultipartFile file,
     Authentication authentication) {
 
+    Path filePath = null;
     try {
       // Проверяем формат файла
       if (!parserService.isSupportedFormat(file.getOriginalFilename())) {
@@ -51,51 +64,97 @@ public class BankStatementController {
           .body(Map.of("error", "Неподдерживаемый формат файла"));
       }
 
-      // Сохраняем файл
-      String filePath = saveUploadedFile(file);
-
-      // Парсим выписку
-      BankStatement statement = parserService.parseStatement(filePath);
-
       // Получаем пользователя
       User user = userService.getCurrentUser(authentication);
 
-      // Конвертируем в транзакции
-      List<Transaction> transactions = mapper.mapToTransactions(statement, user);
+      // Сохраняем файл, одновременно считая хэш содержимого
+      UploadedFile uploaded = saveUploadedFile(file);
+      filePath = uploaded.path();
 
-      // Сохраняем транзакции
-      transactionService.saveAll(transactions);
+      // Та же выписка уже импортирована: повторно не парсим
+      Optional<ImportedStatement> imported = ingestionService.findImportedStatement(user, uploaded.contentHash());
+      if (imported.isPresent()) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Эта выписка уже была загружена");
+        response.put("duplicate", true);
+        response.put("importedAt", imported.get().getImportedAt());
+        response.put("transactionsCount", imported.get().getTransactionsCount());
+        return ResponseEntity.ok(response);
+      }
 
-      // Удаляем временный файл
-      Files.deleteIfExists(Paths.get(filePath));
+      // Ставим выписку в очередь, дальше файлом владеет задача
+      IngestionJobResponse job = ingestionService.submit(filePath, file.getOriginalFilename(),
+        uploaded.contentHash(), file.getSize(), user);
+      filePath = null;
 
       Map<String, Object> response = new HashMap<>();
-      response.put("message", "Выписка успешно обработана");
-      response.put("transactionsCount", transactions.size());
-      response.put("statementPeriod", statement.getPeriodFrom() + " - " + statement.getPeriodTo());
-      response.put("totalIncome", transactions.stream()
-        .filter(t -> t.getType() == TransactionType.INCOME)
-        .mapToDouble(t -> t.getAmount().doubleValue())
-        .sum());
-      response.put("totalExpenses", transactions.stream()
-        .filter(t -> t.getType() == TransactionType.EXPENSE)
-        .mapToDouble(t -> t.getAmount().doubleValue())
-        .sum());
-
-      return ResponseEntity.ok(response);
+      response.put("message", "Выписка принята в обработку");
+      response.put("jobId", job.getJobId());
+      response.put("status", job.getStatus());
+      response.put("statusUrl", "/api/bank-statements/jobs/" + job.getJobId());
+
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
+    } catch (RejectedExecutionException e) {
+      log.warn("Очередь обработки выписок заполнена");
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, "30")
+        .body(Map.of("error", "Сервис перегружен, повторите загрузку позже"));
     } catch (Exception e) {
       log.error("Ошибка при обработке выписки", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
         .body(Map.of("error", "Ошибка при обработке файла: " + e.getMessage()));
+    } finally {
+      // Удаляем временный файл, если он не был передан в задачу
+      deleteTempFile(filePath);
+    }
+  }
+
+  @GetMapping("/jobs/{jobId}")
+  @Operation(summary = "Получить статус обработки выписки")
+  public ResponseEntity<IngestionJobResponse> getJobStatus(
+    @PathVariable String jobId,
+    Authentication authentication) {
+
+    User user = userService.getCurrentUser(authentication);
+    return ingestionService.getJob(jobId, user)
+      .map(ResponseEntity::ok)
+      .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  private UploadedFile saveUploadedFile(MultipartFile file) throws IOException {
+    Path directory = Files.createDirectories(Paths.get(tempDirectory));
+    String extension = FilenameUtils.getExtension(file.getOriginalFilename());
+    Path filePath = Files.createTempFile(directory, "statement-", "." + extension).toAbsolutePath();
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 недоступен", e);
+    }
+
+    // Копируем потоком через буфер: хэш считается за тот же проход, файл в память не читается
+    try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+      Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      deleteTempFile(filePath);
+      throw e;
+    }
+    return new UploadedFile(filePath, HexFormat.of().formatHex(digest.digest()));
+  }
+
+  private void deleteTempFile(Path filePath) {
+    if (filePath == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(filePath);
+    } catch (IOException e) {
+      log.warn("Не удалось удалить временный файл: {}", filePath, e);
     }
   }
 
-  private String saveUploadedFile(MultipartFile file) throws IOException {
-    String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-    Path filePath = Paths.get("temp", fileName);
-    Files.createDirectories(filePath.getParent());
-    Files.write(filePath, file.getBytes());
-    return filePath.toString();
+  private record UploadedFile(Path path, String contentHash) {
   }
-}
\ No newline at end of file
+}
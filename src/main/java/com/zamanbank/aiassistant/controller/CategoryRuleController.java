@@ -0,0 +1,152 @@
+package com.zamanbank.aiassistant.controller;
+
+import com.zamanbank.aiassistant.exception.InvalidRequestException;
+import com.zamanbank.aiassistant.exception.ResourceNotFoundException;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.UserCategoryRule;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.model.enums.UserRole;
+import com.zamanbank.aiassistant.service.TransactionCategoryService;
+import com.zamanbank.aiassistant.service.UserCategoryRuleService;
+import com.zamanbank.aiassistant.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/category-rules")
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryRuleController {
+    
+    private final UserCategoryRuleService ruleService;
+    private final UserService userService;
+    private final TransactionCategoryService categoryService;
+    
+    @GetMapping
+    @Operation(summary = "Получить правила категоризации пользователя")
+    public ResponseEntity<List<RuleResponse>> getRules(Authentication authentication) {
+        try {
+            User user = userService.getCurrentUser(authentication);
+            return ResponseEntity.ok(ruleService.getRules(user).stream()
+                    .map(RuleResponse::from)
+                    .toList());
+        } catch (Exception e) {
+            log.error("Ошибка при получении правил категоризации", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @PostMapping
+    @Operation(summary = "Создать правило категоризации")
+    public ResponseEntity<RuleResponse> createRule(
+            @RequestBody CreateRuleRequest request,
+            Authentication authentication) {
+        try {
+            User user = userService.getCurrentUser(authentication);
+            UserCategoryRule rule = ruleService.createRule(user, request.getKeyword(), request.getCategory(),
+                    request.getTransactionType(), request.getPriority());
+            return ResponseEntity.ok(RuleResponse.from(rule));
+        } catch (InvalidRequestException e) {
+            log.warn("Некорректное правило категоризации: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Ошибка при создании правила категоризации", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @DeleteMapping("/{ruleId}")
+    @Operation(summary = "Удалить правило категоризации")
+    public ResponseEntity<Void> deleteRule(
+            @PathVariable Long ruleId,
+            Authentication authentication) {
+        try {
+            User user = userService.getCurrentUser(authentication);
+            ruleService.deleteRule(ruleId, user);
+            return ResponseEntity.ok().build();
+        } catch (ResourceNotFoundException e) {
+            log.warn("Правило категоризации {} не найдено", ruleId);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Ошибка при удалении правила категоризации", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @PostMapping("/global/reload")
+    @Operation(summary = "Перезагрузить глобальные правила категоризации (только администратор)")
+    public ResponseEntity<ReloadResponse> reloadGlobalRules(Authentication authentication) {
+        try {
+            User user = userService.getCurrentUser(authentication);
+            if (user.getRole() != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            return ResponseEntity.ok(ReloadResponse.from(categoryService.reloadRules(),
+                    categoryService.getRulesLocation()));
+        } catch (Exception e) {
+            log.error("Ошибка при перезагрузке правил категоризации", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // DTO классы
+    @Getter @Setter
+    public static class CreateRuleRequest {
+        private String keyword;
+        private TransactionCategory category;
+        private TransactionType transactionType;
+        private Integer priority;
+    }
+    
+    @Getter
+    @Builder
+    public static class RuleResponse {
+        private Long id;
+        private String keyword;
+        private TransactionCategory category;
+        private TransactionType transactionType;
+        private Integer priority;
+        private LocalDateTime createdAt;
+        
+        static RuleResponse from(UserCategoryRule rule) {
+            return RuleResponse.builder()
+                    .id(rule.getId())
+                    .keyword(rule.getKeyword())
+                    .category(rule.getCategory())
+                    .transactionType(rule.getTransactionType())
+                    .priority(rule.getPriority())
+                    .createdAt(rule.getCreatedAt())
+                    .build();
+        }
+    }
+    
+    @Getter
+    @Builder
+    public static class ReloadResponse {
+        private String location;
+        private Integer ruleCount;
+        private Integer keywordCount;
+        private LocalDateTime loadedAt;
+        
+        static ReloadResponse from(TransactionCategoryService.RulesSnapshot snapshot, String location) {
+            return ReloadResponse.builder()
+                    .location(location)
+                    .ruleCount(snapshot.categorizer().getRuleCount())
+                    .keywordCount(snapshot.categorizer().getKeywordCount())
+                    .loadedAt(snapshot.loadedAt())
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.zamanbank.aiassistant.controller;
 
+import com.zamanbank.aiassistant.dto.GoalProjection;
 import com.zamanbank.aiassistant.dto.GoalRecommendation;
 import com.zamanbank.aiassistant.model.FinancialGoal;
 import com.zamanbank.aiassistant.model.User;
@@ -7,6 +8,7 @@ import com.zamanbank.aiassistant.model.enums.GoalStatus;
 import com.zamanbank.aiassistant.model.enums.GoalType;
 import com.zamanbank.aiassistant.model.enums.GoalPriority;
 import com.zamanbank.aiassistant.service.FinancialGoalService;
+import com.zamanbank.aiassistant.service.GoalProjectionService;
 import com.zamanbank.aiassistant.service.UserService;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +29,7 @@ import java.util.List;
 public class FinancialGoalController {
     
     private final FinancialGoalService goalService;
+    private final GoalProjectionService projectionService;
     private final UserService userService;
     
     @PostMapping
@@ -84,6 +87,27 @@ public class FinancialGoalController {
         }
     }
     
+    @GetMapping("/{goalId}/projection")
+    public ResponseEntity<GoalProjection> getProjection(
+            @PathVariable Long goalId,
+            Authentication authentication) {
+        User user;
+        FinancialGoal goal;
+        try {
+            user = userService.getCurrentUser(authentication);
+            goal = goalService.getGoalById(goalId, user);
+        } catch (Exception e) {
+            log.error("Ошибка при получении цели", e);
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(projectionService.project(goal, user));
+        } catch (Exception e) {
+            log.error("Ошибка при расчете прогноза цели", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     @PutMapping("/{goalId}")
     public ResponseEntity<FinancialGoal> updateGoal(
             @PathVariable Long goalId,
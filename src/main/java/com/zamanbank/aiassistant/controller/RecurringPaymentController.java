@@ -0,0 +1,79 @@
+package com.zamanbank.aiassistant.controller;
+
+import com.zamanbank.aiassistant.model.RecurringPayment;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.RecurrencePeriod;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.service.RecurringPaymentService;
+import com.zamanbank.aiassistant.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recurring-payments")
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringPaymentController {
+    
+    private final RecurringPaymentService recurringPaymentService;
+    private final UserService userService;
+    
+    @GetMapping
+    @Operation(summary = "Получить регулярные платежи и подписки пользователя")
+    public ResponseEntity<List<RecurringPaymentResponse>> getRecurringPayments(
+            @RequestParam(defaultValue = "true") boolean activeOnly,
+            Authentication authentication) {
+        try {
+            User user = userService.getCurrentUser(authentication);
+            return ResponseEntity.ok(recurringPaymentService.getRecurringPayments(user, activeOnly).stream()
+                    .map(RecurringPaymentResponse::from)
+                    .toList());
+        } catch (Exception e) {
+            log.error("Ошибка при получении регулярных платежей", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    // DTO классы
+    @Getter
+    @Builder
+    public static class RecurringPaymentResponse {
+        private Long id;
+        private String merchant;
+        private boolean income;
+        private TransactionCategory category;
+        private RecurrencePeriod period;
+        private BigDecimal typicalAmount;
+        private Integer occurrences;
+        private LocalDate firstSeen;
+        private LocalDate lastSeen;
+        private LocalDate nextExpected;
+        private boolean active;
+        
+        static RecurringPaymentResponse from(RecurringPayment payment) {
+            return RecurringPaymentResponse.builder()
+                    .id(payment.getId())
+                    .merchant(payment.getMerchantKey())
+                    .income(payment.isIncome())
+                    .category(payment.getCategory())
+                    .period(payment.getPeriod())
+                    .typicalAmount(payment.getTypicalAmount())
+                    .occurrences(payment.getOccurrences())
+                    .firstSeen(payment.getFirstSeen())
+                    .lastSeen(payment.getLastSeen())
+                    .nextExpected(payment.getNextExpected())
+                    .active(payment.isActive())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.zamanbank.aiassistant.controller;
+
+import com.zamanbank.aiassistant.dto.FinancialAnalysis;
+import com.zamanbank.aiassistant.dto.MonthlyCashFlow;
+import com.zamanbank.aiassistant.dto.TransactionHistoryPage;
+import com.zamanbank.aiassistant.dto.TransactionView;
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.SpendingAnomalyType;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.service.FinancialAnalysisService;
+import com.zamanbank.aiassistant.service.TransactionExportService;
+import com.zamanbank.aiassistant.service.TransactionService;
+import com.zamanbank.aiassistant.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionController {
+    
+    private final TransactionService transactionService;
+    private final TransactionExportService exportService;
+    private final FinancialAnalysisService analysisService;
+    private final UserService userService;
+    
+    @GetMapping("/history")
+    @Operation(summary = "История транзакций с постраничной прокруткой по ключу")
+    public ResponseEntity<TransactionHistoryPage> getHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+        
+        try {
+            User user = userService.getCurrentUser(authentication);
+            return ResponseEntity.ok(transactionService.getHistory(user, beforeDate, beforeId, size));
+        } catch (Exception e) {
+            log.error("Ошибка при получении истории транзакций", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @GetMapping("/analysis")
+    @Operation(summary = "Доходы, расходы и норма сбережений за период")
+    public ResponseEntity<FinancialAnalysis> getAnalysis(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        
+        try {
+            User user = userService.getCurrentUser(authentication);
+            // По умолчанию - последние 12 месяцев, включая текущий
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusMonths(11).withDayOfMonth(1);
+            return ResponseEntity.ok(analysisService.analyze(user, start, end));
+        } catch (Exception e) {
+            log.error("Ошибка при расчете финансового анализа", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/analysis/monthly")
+    @Operation(summary = "Доходы и расходы по месяцам")
+    public ResponseEntity<List<MonthlyCashFlow>> getMonthlyCashFlow(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        
+        try {
+            User user = userService.getCurrentUser(authentication);
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusMonths(11).withDayOfMonth(1);
+            return ResponseEntity.ok(analysisService.getMonthlyCashFlow(user, start, end));
+        } catch (Exception e) {
+            log.error("Ошибка при расчете помесячных доходов и расходов", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/anomalies")
+    @Operation(summary = "Необычные расходы, отмеченные при импорте")
+    public ResponseEntity<List<AnomalyResponse>> getAnomalies(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        
+        try {
+            User user = userService.getCurrentUser(authentication);
+            // По умолчанию - последние 3 месяца
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusMonths(3);
+            return ResponseEntity.ok(transactionService.findAnomalies(user, start, end).stream()
+                    .map(AnomalyResponse::from)
+                    .toList());
+        } catch (Exception e) {
+            log.error("Ошибка при получении необычных расходов", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузить транзакции в CSV или NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "CSV") TransactionExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            Authentication authentication) {
+        
+        User user = userService.getCurrentUser(authentication);
+        String fileName = "transactions." + format.getExtension() + (gzip ? ".gz" : "");
+        
+        // Тело пишется в отдельном потоке после возврата из метода, курсор открывается там же
+        StreamingResponseBody body = outputStream ->
+                exportService.export(user, from, to, format, gzip, outputStream);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+    
+    @PutMapping("/{transactionId}/category")
+    @Operation(summary = "Подтвердить или исправить категорию транзакции")
+    public ResponseEntity<TransactionView> confirmCategory(
+            @PathVariable Long transactionId,
+            @RequestBody ConfirmCategoryRequest request,
+            Authentication authentication) {
+        
+        try {
+            User user = userService.getCurrentUser(authentication);
+            Transaction transaction = transactionService.confirmCategory(user, transactionId, request.getCategory());
+            return ResponseEntity.ok(new TransactionView(transaction.getId(), transaction.getDate(),
+                    transaction.getAmount(), transaction.getType(), transaction.getCategory(),
+                    transaction.getDescription()));
+        } catch (Exception e) {
+            log.error("Ошибка при подтверждении категории транзакции", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // DTO классы
+    @Getter
+    @Builder
+    public static class AnomalyResponse {
+        private Long id;
+        private LocalDate date;
+        private BigDecimal amount;
+        private TransactionCategory category;
+        private String description;
+        private SpendingAnomalyType anomalyType;
+        private Double anomalyScore;
+        
+        static AnomalyResponse from(Transaction transaction) {
+            return AnomalyResponse.builder()
+                    .id(transaction.getId())
+                    .date(transaction.getDate())
+                    .amount(transaction.getAmount())
+                    .category(transaction.getCategory())
+                    .description(transaction.getDescription())
+                    .anomalyType(transaction.getAnomalyType())
+                    .anomalyScore(transaction.getAnomalyScore())
+                    .build();
+        }
+    }
+    
+    @Getter @Setter
+    public static class ConfirmCategoryRequest {
+        private TransactionCategory category;
+    }
+}
@@ -0,0 +1,29 @@
+package com.zamanbank.aiassistant.dto;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Сумма и количество транзакций одного типа и категории за период.
+ */
+@Data
+@NoArgsConstructor
+public class CategoryTotal {
+    private TransactionType type;
+    private TransactionCategory category;
+    private BigDecimal totalAmount;
+    private long transactionsCount;
+
+    // Конструктор для JPQL-выражения SELECT new
+    public CategoryTotal(TransactionType type, TransactionCategory category,
+                         BigDecimal totalAmount, Long transactionsCount) {
+        this.type = type;
+        this.category = category;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.transactionsCount = transactionsCount != null ? transactionsCount : 0L;
+    }
+}
@@ -0,0 +1,30 @@
+package com.zamanbank.aiassistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Прогноз достижения цели. Даты - 10-й, 50-й и 90-й процентили по смоделированным путям;
+ * {@code null}, если за горизонт моделирования такая доля путей цели не достигла.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalProjection {
+    private Long goalId;
+    private BigDecimal remainingAmount;
+    private BigDecimal monthlyContribution;
+    private Integer historyMonths;
+    private Integer simulatedPaths;
+    private LocalDate optimisticDate;
+    private LocalDate expectedDate;
+    private LocalDate pessimisticDate;
+    // Вероятность успеть к целевой дате, в процентах
+    private Double onTrackProbability;
+}
@@ -0,0 +1,20 @@
+package com.zamanbank.aiassistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyCashFlow {
+    private YearMonth month;
+    private BigDecimal income;
+    private BigDecimal expenses;
+    private BigDecimal surplus;
+}
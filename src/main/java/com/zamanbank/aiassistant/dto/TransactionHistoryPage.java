@@ -0,0 +1,24 @@
+package com.zamanbank.aiassistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Страница истории транзакций. Следующая страница запрашивается по ключу
+ * последней записи (nextBeforeDate, nextBeforeId), а не по смещению.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPage {
+    private List<TransactionView> items;
+    private boolean hasMore;
+    private LocalDate nextBeforeDate;
+    private Long nextBeforeId;
+}
@@ -0,0 +1,30 @@
+package com.zamanbank.aiassistant.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Сводка по транзакциям пользователя, вычисляемая агрегатами в SQL.
+ */
+@Data
+@NoArgsConstructor
+public class TransactionSummary {
+    private long transactionsCount;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpenses;
+    private LocalDate firstTransactionDate;
+    private LocalDate lastTransactionDate;
+
+    // Конструктор для JPQL-выражения SELECT new: SUM по пустой выборке возвращает NULL
+    public TransactionSummary(Long transactionsCount, BigDecimal totalIncome, BigDecimal totalExpenses,
+                              LocalDate firstTransactionDate, LocalDate lastTransactionDate) {
+        this.transactionsCount = transactionsCount != null ? transactionsCount : 0L;
+        this.totalIncome = totalIncome != null ? totalIncome : BigDecimal.ZERO;
+        this.totalExpenses = totalExpenses != null ? totalExpenses : BigDecimal.ZERO;
+        this.firstTransactionDate = firstTransactionDate;
+        this.lastTransactionDate = lastTransactionDate;
+    }
+}
@@ -0,0 +1,27 @@
+package com.zamanbank.aiassistant.dto;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Облегченное представление транзакции для истории и выгрузки: без связей и служебных полей.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView {
+    private Long id;
+    private LocalDate date;
+    private BigDecimal amount;
+    private TransactionType type;
+    private TransactionCategory category;
+    private String description;
+}
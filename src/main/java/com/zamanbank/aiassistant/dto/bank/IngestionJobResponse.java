@@ -0,0 +1,30 @@
+package com.zamanbank.aiassistant.dto.bank;
+
+import com.zamanbank.aiassistant.model.enums.IngestionJobStatus;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class IngestionJobResponse {
+  private String jobId;
+  private String fileName;
+  private IngestionJobStatus status;
+  private int pagesParsed;
+  private int totalPages;
+  private long transactionsParsed;
+  private long transactionsSaved;
+  private long duplicatesSkipped;
+  private long anomaliesFlagged;
+  private BigDecimal totalIncome;
+  private BigDecimal totalExpenses;
+  private LocalDate periodFrom;
+  private LocalDate periodTo;
+  private List<String> errors;
+  private LocalDateTime createdAt;
+  private LocalDateTime finishedAt;
+}
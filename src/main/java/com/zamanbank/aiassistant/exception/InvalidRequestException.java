@@ -0,0 +1,11 @@
+package com.zamanbank.aiassistant.exception;
+
+/**
+ * Данные запроса не прошли проверку.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
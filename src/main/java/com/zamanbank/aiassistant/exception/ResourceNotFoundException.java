@@ -0,0 +1,11 @@
+package com.zamanbank.aiassistant.exception;
+
+/**
+ * Запрошенный объект не найден или не принадлежит пользователю.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -4,31 +4,142 @@ import com.zamanbank.aiassistant.dto.bank.BankStatement;
 import com.zamanbank.aiassistant.dto.bank.BankTransaction;
 import com.zamanbank.aiassistant.model.Transaction;
 import com.zamanbank.aiassistant.model.User;
-import com.zamanbank.aiassistant.service.TransactionCategoryService;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.service.UserCategoryRuleService;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import com.zamanbank.aiassistant.service.categorization.MerchantCategoryCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 public class BankStatementMapper {
-  private final TransactionCategoryService categoryService;
+
+  private static final int MIN_LEAF_SIZE = 64;
+
+  private final MerchantCategoryCache merchantCategoryCache;
+  private final UserCategoryRuleService userCategoryRuleService;
+
+  @Value("${app.mapper.parallel.threshold:256}")
+  private int parallelThreshold;
+
+  @Value("${app.mapper.parallel.threads:0}")
+  private int parallelThreads;
+
+  private ForkJoinPool mappingPool;
+
+  @PostConstruct
+  void initMappingPool() {
+    int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+    // Отдельный пул, чтобы не конкурировать с commonPool и не блокировать его
+    mappingPool = new ForkJoinPool(threads, pool -> {
+      ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      worker.setName("statement-mapper-" + worker.getPoolIndex());
+      return worker;
+    }, null, false);
+  }
+
+  @PreDestroy
+  void shutdownMappingPool() {
+    mappingPool.shutdown();
+  }
 
   public List<Transaction> mapToTransactions(BankStatement statement, User user) {
-    return statement.getTransactions().stream()
-      .map(bankTx -> mapToTransaction(bankTx, user))
-      .collect(Collectors.toList());
+    return mapToTransactions(statement.getTransactions(), user);
+  }
+
+  /**
+   * Пачки от порога {@code app.mapper.parallel.threshold} строк размечаются параллельно.
+   * Порядок результата совпадает с порядком входного списка.
+   */
+  public List<Transaction> mapToTransactions(List<BankTransaction> bankTransactions, User user) {
+    // Правила пользователя берутся один раз на пачку, дальше строки проверяются в памяти
+    KeywordCategorizer userRules = userCategoryRuleService.getCompiledRules(user);
+    return bankTransactions.size() >= parallelThreshold
+      ? mapParallel(bankTransactions, user, userRules)
+      : mapSequential(bankTransactions, user, userRules);
   }
 
-  private Transaction mapToTransaction(BankTransaction bankTx, User user) {
+  List<Transaction> mapSequential(List<BankTransaction> bankTransactions, User user,
+    KeywordCategorizer userRules) {
+    List<Transaction> transactions = new ArrayList<>(bankTransactions.size());
+    for (BankTransaction bankTx : bankTransactions) {
+      transactions.add(mapToTransaction(bankTx, user, userRules));
+    }
+    return transactions;
+  }
+
+  List<Transaction> mapParallel(List<BankTransaction> bankTransactions, User user,
+    KeywordCategorizer userRules) {
+    BankTransaction[] source = bankTransactions.toArray(new BankTransaction[0]);
+    Transaction[] target = new Transaction[source.length];
+    int leafSize = Math.max(MIN_LEAF_SIZE, source.length / (mappingPool.getParallelism() * 4));
+    mappingPool.invoke(new MapRangeTask(source, target, user, userRules, 0, source.length, leafSize));
+    return new ArrayList<>(Arrays.asList(target));
+  }
+
+  private Transaction mapToTransaction(BankTransaction bankTx, User user, KeywordCategorizer userRules) {
     return Transaction.builder()
       .user(user)
       .amount(bankTx.getAmount())
       .type(bankTx.getType())
-      .category(categoryService.categorizeTransaction(bankTx.getDescription()))
+      .category(categorize(bankTx, userRules))
       .description(bankTx.getDescription())
       .date(bankTx.getOperationDate())
       .build();
   }
-}
\ No newline at end of file
+
+  private TransactionCategory categorize(BankTransaction bankTx, KeywordCategorizer userRules) {
+    TransactionCategory category = userRules.categorize(bankTx.getDescription(), bankTx.getType());
+    return category != null
+      ? category
+      : merchantCategoryCache.categorize(bankTx.getDescription(), bankTx.getType());
+  }
+
+  /**
+   * Делит диапазон пополам до размера листа; каждый лист пишет в свой участок массива.
+   */
+  private final class MapRangeTask extends RecursiveAction {
+    private final BankTransaction[] source;
+    private final Transaction[] target;
+    private final User user;
+    private final KeywordCategorizer userRules;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    private MapRangeTask(BankTransaction[] source, Transaction[] target, User user,
+      KeywordCategorizer userRules, int from, int to, int leafSize) {
+      this.source = source;
+      this.target = target;
+      this.user = user;
+      this.userRules = userRules;
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= leafSize) {
+        for (int i = from; i < to; i++) {
+          target[i] = mapToTransaction(source[i], user, userRules);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(
+        new MapRangeTask(source, target, user, userRules, from, middle, leafSize),
+        new MapRangeTask(source, target, user, userRules, middle, to, leafSize));
+    }
+  }
+}
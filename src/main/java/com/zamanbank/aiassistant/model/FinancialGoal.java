@@ -71,6 +71,10 @@ public class FinancialGoal {
     @Column(columnDefinition = "TEXT")
     private String motivationTips;
     
+    // Версия для оптимистической блокировки; атомарное пополнение тоже ее увеличивает
+    @Version
+    private Long version;
+    
     @CreatedDate
     private LocalDateTime createdAt;
     
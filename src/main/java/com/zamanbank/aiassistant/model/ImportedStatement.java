@@ -0,0 +1,43 @@
+package com.zamanbank.aiassistant.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "imported_statements",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "content_hash"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportedStatement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // SHA-256 содержимого файла в hex
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "import_id", nullable = false, length = 36)
+    private String importId;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private Long transactionsCount;
+
+    @Column(nullable = false)
+    private LocalDateTime importedAt;
+}
@@ -53,6 +53,14 @@ public class Message {
     private Boolean isProcessed;
     
     @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime timestamp;
+
+    @PrePersist
+    void prePersist() {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+    }
 }
 
@@ -0,0 +1,50 @@
+package com.zamanbank.aiassistant.model;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Сумма и количество транзакций пользователя за месяц по типу и категории.
+ * Обновляется вместе с транзакциями в {@code TransactionService}, чтобы аналитика
+ * за любой период читала десятки строк вместо всех транзакций.
+ */
+@Entity
+@Table(name = "monthly_category_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyCategoryTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Первое число месяца
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionCategory category;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "transactions_count", nullable = false)
+    private Long transactionsCount;
+}
@@ -0,0 +1,70 @@
+package com.zamanbank.aiassistant.model;
+
+import com.zamanbank.aiassistant.model.enums.RecurrencePeriod;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Регулярный платеж или поступление: подписка, аренда, зарплата.
+ * Пересчитывается после каждого импорта для продавцов, по которым пришли новые операции.
+ */
+@Entity
+@Table(name = "recurring_payments")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringPayment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "merchant_key", nullable = false)
+    private String merchantKey;
+
+    // true - регулярное поступление, false - списание
+    @Column(nullable = false)
+    private boolean income;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrencePeriod period;
+
+    @Column(name = "typical_amount", nullable = false)
+    private BigDecimal typicalAmount;
+
+    @Column(nullable = false)
+    private Integer occurrences;
+
+    @Column(name = "first_seen", nullable = false)
+    private LocalDate firstSeen;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDate lastSeen;
+
+    @Column(name = "next_expected", nullable = false)
+    private LocalDate nextExpected;
+
+    // Ряд не прервался: с последней даты прошло не больше одного периода
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,46 @@
+package com.zamanbank.aiassistant.model;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Скользящая статистика расходов пользователя по категории: экспоненциально взвешенные
+ * среднее и дисперсия логарифма суммы. Строка без категории - статистика по всем расходам.
+ */
+@Entity
+@Table(name = "spending_category_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingCategoryStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionCategory category;
+
+    @Column(nullable = false)
+    private Long observations;
+
+    @Column(name = "ewma_mean", nullable = false)
+    private Double ewmaMean;
+
+    @Column(name = "ewma_variance", nullable = false)
+    private Double ewmaVariance;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
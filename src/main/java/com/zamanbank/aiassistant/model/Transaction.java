@@ -1,5 +1,6 @@
 package com.zamanbank.aiassistant.model;
 
+import com.zamanbank.aiassistant.model.enums.SpendingAnomalyType;
 import com.zamanbank.aiassistant.model.enums.TransactionCategory;
 import com.zamanbank.aiassistant.model.enums.TransactionType;
 import jakarta.persistence.*;
@@ -20,8 +21,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
+    // Последовательность с шагом 50 вместо IDENTITY: Hibernate выделяет id пачкой
+    // и может объединять INSERT в JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+    @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,11 +41,62 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionCategory category;
 
+    // Категорию подтвердил или исправил пользователь; такие записи обучают классификатор
+    @Column(name = "category_confirmed", nullable = false)
+    @Builder.Default
+    private boolean categoryConfirmed = false;
+
     private String description;
 
-    @Column(nullable = false)
+    // Необычный расход, отмеченный при импорте, и его отклонение в стандартных отклонениях
+    @Enumerated(EnumType.STRING)
+    @Column(name = "anomaly_type")
+    private SpendingAnomalyType anomalyType;
+
+    @Column(name = "anomaly_score")
+    private Double anomalyScore;
+
+    @Column(name = "transaction_date", nullable = false)
     private LocalDate date;
 
+    // Хэш описания для поиска дубликатов при повторном импорте
+    @Column(name = "description_hash")
+    private Long descriptionHash;
+
+    // Идентификатор задачи импорта, создавшей транзакцию
+    @Column(name = "import_id", length = 36)
+    private String importId;
+
     @CreatedDate
     private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        descriptionHash = hashDescription(description);
+    }
+
+    // Описание могли изменить после сохранения: хэш пересчитывается вместе с ним
+    @PreUpdate
+    void preUpdate() {
+        descriptionHash = hashDescription(description);
+    }
+
+    /**
+     * 64-битный FNV-1a хэш описания без пробелов по краям.
+     */
+    public static long hashDescription(String description) {
+        long hash = 0xcbf29ce484222325L;
+        if (description == null) {
+            return hash;
+        }
+        String value = description.trim();
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 }
@@ -0,0 +1,58 @@
+package com.zamanbank.aiassistant.model;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пользовательское правило категоризации: операции с ключевым словом в описании
+ * относятся к указанной категории. Применяется раньше общих правил.
+ */
+@Entity
+@Table(name = "user_category_rules")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCategoryRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String keyword;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionCategory category;
+
+    // Пусто - правило действует и на поступления, и на списания
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type")
+    private TransactionType transactionType;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer priority = 1000;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
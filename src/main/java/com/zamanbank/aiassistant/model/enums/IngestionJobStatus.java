@@ -0,0 +1,9 @@
+package com.zamanbank.aiassistant.model.enums;
+
+public enum IngestionJobStatus {
+    QUEUED,             // В очереди
+    RUNNING,            // Обрабатывается
+    COMPLETED,          // Завершена
+    PARTIAL,            // Завершена, но часть транзакций не сохранена
+    FAILED              // Ошибка
+}
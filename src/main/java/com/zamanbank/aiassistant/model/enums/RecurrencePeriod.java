@@ -0,0 +1,25 @@
+package com.zamanbank.aiassistant.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Период регулярного платежа: допустимый интервал между датами в днях
+ * и минимальное число дат, после которого ряд считается регулярным.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RecurrencePeriod {
+    WEEKLY(5, 9, 4),
+    MONTHLY(25, 36, 3);
+
+    private final int minGapDays;
+    private final int maxGapDays;
+    private final int minOccurrences;
+
+    public LocalDate next(LocalDate date) {
+        return this == WEEKLY ? date.plusWeeks(1) : date.plusMonths(1);
+    }
+}
@@ -0,0 +1,8 @@
+package com.zamanbank.aiassistant.model.enums;
+
+public enum SpendingAnomalyType {
+    // Сумма намного выше обычной для категории
+    UNUSUAL_AMOUNT,
+    // Крупная трата в категории, где у пользователя раньше не было расходов
+    UNUSUAL_CATEGORY
+}
@@ -18,6 +18,8 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     
     List<Conversation> findByUserAndStatusOrderByLastActivityAtDesc(User user, ConversationStatus status);
     
+    long countByUser(User user);
+    
     @Query("SELECT c FROM Conversation c WHERE c.user = :user AND c.status = 'ACTIVE' ORDER BY c.lastActivityAt DESC")
     List<Conversation> findActiveConversationsByUser(@Param("user") User user);
     
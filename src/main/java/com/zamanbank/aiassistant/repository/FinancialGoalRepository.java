@@ -4,10 +4,12 @@ import com.zamanbank.aiassistant.model.FinancialGoal;
 import com.zamanbank.aiassistant.model.User;
 import com.zamanbank.aiassistant.model.enums.GoalStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
@@ -17,10 +19,28 @@ public interface FinancialGoalRepository extends JpaRepository<FinancialGoal, Lo
     
     List<FinancialGoal> findByUserAndStatus(User user, GoalStatus status);
     
+    long countByUser(User user);
+    
+    long countByUserAndStatus(User user, GoalStatus status);
+    
     @Query("SELECT fg FROM FinancialGoal fg WHERE fg.user = :user AND fg.status = 'IN_PROGRESS' ORDER BY fg.priority DESC, fg.targetDate ASC")
     List<FinancialGoal> findActiveGoalsByUser(@Param("user") User user);
     
     @Query("SELECT fg FROM FinancialGoal fg WHERE fg.user = :user AND fg.targetDate <= CURRENT_DATE AND fg.status = 'IN_PROGRESS'")
     List<FinancialGoal> findOverdueGoalsByUser(@Param("user") User user);
+    
+    // Пополнение одной командой: сумма не превышает целевую, при достижении цель завершается.
+    // Все выражения SET видят значения строки до обновления
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE financial_goals SET " +
+                   "current_amount = LEAST(COALESCE(current_amount, 0) + :amount, target_amount), " +
+                   "status = CASE WHEN COALESCE(current_amount, 0) + :amount >= target_amount " +
+                   "THEN 'COMPLETED' ELSE status END, " +
+                   "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE id = :goalId AND user_id = :userId AND status = 'IN_PROGRESS'",
+           nativeQuery = true)
+    int addContribution(@Param("goalId") Long goalId,
+                        @Param("userId") Long userId,
+                        @Param("amount") BigDecimal amount);
 }
 
@@ -0,0 +1,13 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.model.ImportedStatement;
+import com.zamanbank.aiassistant.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportedStatementRepository extends JpaRepository<ImportedStatement, Long> {
+    Optional<ImportedStatement> findByUserAndContentHash(User user, String contentHash);
+}
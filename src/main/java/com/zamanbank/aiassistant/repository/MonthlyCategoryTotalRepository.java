@@ -0,0 +1,45 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.dto.CategoryTotal;
+import com.zamanbank.aiassistant.model.MonthlyCategoryTotal;
+import com.zamanbank.aiassistant.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlyCategoryTotalRepository extends JpaRepository<MonthlyCategoryTotal, Long> {
+
+    // Атомарно прибавляет приращение к строке месяца, создавая ее при первом обращении
+    @Modifying
+    @Query(value = "INSERT INTO monthly_category_totals (user_id, month, type, category, total_amount, transactions_count) " +
+                   "VALUES (:userId, :month, :type, :category, :amount, :count) " +
+                   "ON CONFLICT (user_id, month, (COALESCE(type, '')), (COALESCE(category, ''))) DO UPDATE SET " +
+                   "total_amount = monthly_category_totals.total_amount + EXCLUDED.total_amount, " +
+                   "transactions_count = monthly_category_totals.transactions_count + EXCLUDED.transactions_count",
+           nativeQuery = true)
+    void upsertDelta(@Param("userId") Long userId,
+                     @Param("month") LocalDate month,
+                     @Param("type") String type,
+                     @Param("category") String category,
+                     @Param("amount") BigDecimal amount,
+                     @Param("count") long count);
+
+    // Строки, у которых после вычитания не осталось транзакций
+    @Modifying
+    @Query("DELETE FROM MonthlyCategoryTotal m WHERE m.user.id = :userId AND m.transactionsCount <= 0")
+    int deleteEmptyByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.zamanbank.aiassistant.dto.CategoryTotal(m.type, m.category, SUM(m.totalAmount), " +
+           "SUM(m.transactionsCount)) FROM MonthlyCategoryTotal m " +
+           "WHERE m.user = :user AND m.month BETWEEN :fromMonth AND :toMonth GROUP BY m.type, m.category")
+    List<CategoryTotal> sumByUserAndMonthBetween(@Param("user") User user,
+                                                 @Param("fromMonth") LocalDate fromMonth,
+                                                 @Param("toMonth") LocalDate toMonth);
+}
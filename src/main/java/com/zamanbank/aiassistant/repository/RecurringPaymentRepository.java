@@ -0,0 +1,30 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.model.RecurringPayment;
+import com.zamanbank.aiassistant.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecurringPaymentRepository extends JpaRepository<RecurringPayment, Long> {
+    List<RecurringPayment> findByUserOrderByNextExpectedAsc(User user);
+    List<RecurringPayment> findByUserAndActiveTrueOrderByNextExpectedAsc(User user);
+
+    @Modifying
+    @Query("DELETE FROM RecurringPayment r WHERE r.user = :user AND r.merchantKey IN :merchantKeys")
+    int deleteByUserAndMerchantKeyIn(@Param("user") User user,
+                                     @Param("merchantKeys") Collection<String> merchantKeys);
+
+    // Блокировка пересчета для пользователя до конца транзакции: параллельные импорты не дублируют строки.
+    // Ключ bigint: хэш таблицы в старших 32 битах, id пользователя целиком через XOR
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock("
+            + "(CAST(hashtext('recurring_payments') AS bigint) << 32) # CAST(:userId AS bigint))",
+           nativeQuery = true)
+    Integer lockUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,36 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.model.SpendingCategoryStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SpendingCategoryStatRepository extends JpaRepository<SpendingCategoryStat, Long> {
+    List<SpendingCategoryStat> findByUserId(Long userId);
+
+    // Записывает новое состояние ячейки, создавая строку при первом обращении
+    @Modifying
+    @Query(value = "INSERT INTO spending_category_stats (user_id, category, observations, ewma_mean, ewma_variance, updated_at) " +
+                   "VALUES (:userId, :category, :observations, :mean, :variance, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (user_id, (COALESCE(category, ''))) DO UPDATE SET " +
+                   "observations = EXCLUDED.observations, ewma_mean = EXCLUDED.ewma_mean, " +
+                   "ewma_variance = EXCLUDED.ewma_variance, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void upsert(@Param("userId") Long userId,
+                @Param("category") String category,
+                @Param("observations") long observations,
+                @Param("mean") double mean,
+                @Param("variance") double variance);
+
+    // Пачки одного пользователя обновляют статистику по очереди до конца транзакции.
+    // Ключ bigint: хэш таблицы в старших 32 битах, id пользователя целиком через XOR
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock("
+            + "(CAST(hashtext('spending_category_stats') AS bigint) << 32) # CAST(:userId AS bigint))",
+           nativeQuery = true)
+    Integer lockUser(@Param("userId") Long userId);
+}
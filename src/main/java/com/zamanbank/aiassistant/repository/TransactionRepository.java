@@ -1,17 +1,139 @@
 package com.zamanbank.aiassistant.repository;
 
+import com.zamanbank.aiassistant.dto.CategoryTotal;
+import com.zamanbank.aiassistant.dto.TransactionSummary;
+import com.zamanbank.aiassistant.dto.TransactionView;
 import com.zamanbank.aiassistant.model.Transaction;
 import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
 import com.zamanbank.aiassistant.model.enums.TransactionType;
 import java.time.LocalDate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByUser(User user);
     List<Transaction> findByUserAndType(User user, TransactionType type);
     List<Transaction> findByUserAndDateBetween(User user, LocalDate start, LocalDate end);
+
+    long countByUser(User user);
+
+    Optional<Transaction> findByIdAndUser(Long id, User user);
+
+    // Использует частичный индекс idx_transactions_anomaly
+    @Query("SELECT t FROM Transaction t WHERE t.user = :user AND t.anomalyType IS NOT NULL " +
+           "AND t.date BETWEEN :start AND :end ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findAnomalies(@Param("user") User user,
+                                    @Param("start") LocalDate start,
+                                    @Param("end") LocalDate end);
+
+    // Поля, определяющие строку помесячных сумм, в том виде, как они сохранены в базе
+    @Query("SELECT t.user.id AS userId, t.date AS date, t.type AS type, t.category AS category, " +
+           "t.amount AS amount FROM Transaction t WHERE t.id = :id AND t.user IS NOT NULL")
+    Optional<RollupKeyView> findRollupKeyById(@Param("id") Long id);
+
+    // Первая страница истории: самые новые транзакции
+    @Query("SELECT new com.zamanbank.aiassistant.dto.TransactionView(t.id, t.date, t.amount, t.type, t.category, t.description) " +
+           "FROM Transaction t WHERE t.user = :user ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findHistory(@Param("user") User user, Limit limit);
+
+    // Следующая страница: записи строго раньше ключа (date, id) последней полученной записи
+    @Query("SELECT new com.zamanbank.aiassistant.dto.TransactionView(t.id, t.date, t.amount, t.type, t.category, t.description) " +
+           "FROM Transaction t WHERE t.user = :user AND (t.date, t.id) < (:beforeDate, :beforeId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findHistoryBefore(@Param("user") User user,
+                                            @Param("beforeDate") LocalDate beforeDate,
+                                            @Param("beforeId") Long beforeId,
+                                            Limit limit);
+
+    // Курсорное чтение для выгрузки; поток нужно закрыть и читать внутри транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.zamanbank.aiassistant.dto.TransactionView(t.id, t.date, t.amount, t.type, t.category, t.description) " +
+           "FROM Transaction t WHERE t.user = :user ORDER BY t.date, t.id")
+    Stream<TransactionView> streamByUser(@Param("user") User user);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.zamanbank.aiassistant.dto.TransactionView(t.id, t.date, t.amount, t.type, t.category, t.description) " +
+           "FROM Transaction t WHERE t.user = :user AND t.date BETWEEN :start AND :end ORDER BY t.date, t.id")
+    Stream<TransactionView> streamByUserAndDateBetween(@Param("user") User user,
+                                                       @Param("start") LocalDate start,
+                                                       @Param("end") LocalDate end);
+
+    // Количество, суммы доходов и расходов и границы периода одним агрегатным запросом
+    @Query("SELECT new com.zamanbank.aiassistant.dto.TransactionSummary(COUNT(t), " +
+           "SUM(CASE WHEN t.type = com.zamanbank.aiassistant.model.enums.TransactionType.INCOME THEN t.amount END), " +
+           "SUM(CASE WHEN t.type = com.zamanbank.aiassistant.model.enums.TransactionType.EXPENSE THEN t.amount END), " +
+           "MIN(t.date), MAX(t.date)) FROM Transaction t WHERE t.user = :user")
+    TransactionSummary summarizeByUser(@Param("user") User user);
+
+    // Суммы по типу и категории за неполные месяцы на краях периода аналитики
+    @Query("SELECT new com.zamanbank.aiassistant.dto.CategoryTotal(t.type, t.category, SUM(t.amount), COUNT(t)) " +
+           "FROM Transaction t WHERE t.user = :user AND t.date BETWEEN :start AND :end GROUP BY t.type, t.category")
+    List<CategoryTotal> sumByUserAndDateBetween(@Param("user") User user,
+                                                @Param("start") LocalDate start,
+                                                @Param("end") LocalDate end);
+
+    // Ключи уже сохраненных транзакций за период, кроме созданных текущим импортом
+    @Query("SELECT t.date AS date, t.amount AS amount, t.type AS type, t.descriptionHash AS descriptionHash, " +
+           "t.description AS description FROM Transaction t " +
+           "WHERE t.user = :user AND t.date BETWEEN :start AND :end " +
+           "AND (t.importId IS NULL OR t.importId <> :importId)")
+    List<DedupKeyView> findDedupKeys(@Param("user") User user,
+                                     @Param("start") LocalDate start,
+                                     @Param("end") LocalDate end,
+                                     @Param("importId") String importId);
+
+    // Строки для колоночного кэша аналитики в порядке (дата, id)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id AS id, t.date AS date, t.amount AS amount, t.type AS type, t.category AS category " +
+           "FROM Transaction t WHERE t.user.id = :userId ORDER BY t.date, t.id")
+    Stream<ColumnRowView> streamColumnRowsByUserId(@Param("userId") Long userId);
+
+    interface ColumnRowView {
+        Long getId();
+        LocalDate getDate();
+        BigDecimal getAmount();
+        TransactionType getType();
+        TransactionCategory getCategory();
+    }
+
+    // Подтвержденные пользователями категории для обучения классификатора
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.description AS description, t.type AS type, t.category AS category " +
+           "FROM Transaction t WHERE t.categoryConfirmed = true AND t.category IS NOT NULL")
+    Stream<CategorySampleView> streamConfirmedCategorySamples();
+
+    interface CategorySampleView {
+        String getDescription();
+        TransactionType getType();
+        TransactionCategory getCategory();
+    }
+
+    interface RollupKeyView {
+        Long getUserId();
+        LocalDate getDate();
+        TransactionType getType();
+        TransactionCategory getCategory();
+        BigDecimal getAmount();
+    }
+
+    interface DedupKeyView {
+        LocalDate getDate();
+        BigDecimal getAmount();
+        TransactionType getType();
+        Long getDescriptionHash();
+        String getDescription();
+    }
 }
@@ -0,0 +1,16 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.UserCategoryRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserCategoryRuleRepository extends JpaRepository<UserCategoryRule, Long> {
+    List<UserCategoryRule> findByUserOrderByCreatedAtDesc(User user);
+    List<UserCategoryRule> findByUserId(Long userId);
+    Optional<UserCategoryRule> findByIdAndUser(Long id, User user);
+}
@@ -0,0 +1,189 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.dto.CategoryTotal;
+import com.zamanbank.aiassistant.dto.FinancialAnalysis;
+import com.zamanbank.aiassistant.dto.MonthlyCashFlow;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.repository.MonthlyCategoryTotalRepository;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
+import com.zamanbank.aiassistant.service.analytics.TransactionColumnCache;
+import com.zamanbank.aiassistant.service.analytics.TransactionColumns;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Финансовый анализ за произвольный период. Если колонки транзакций пользователя
+ * уже загружены в {@link TransactionColumnCache}, агрегаты считаются проходом по массивам.
+ * Иначе полные месяцы периода берутся из помесячных сумм {@code monthly_category_totals},
+ * и только неполные месяцы на краях периода суммируются по самим транзакциям.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinancialAnalysisService {
+
+    private static final boolean[] INCOME_TYPES = typeMask(KeywordCategorizer::isIncome);
+    private static final boolean[] EXPENSE_TYPES = typeMask(FinancialAnalysisService::isExpense);
+    private static final List<TransactionType> TYPES_WITH_NONE = withNone(TransactionType.values());
+    private static final List<TransactionCategory> CATEGORIES_WITH_NONE = withNone(TransactionCategory.values());
+
+    private final MonthlyCategoryTotalRepository totalsRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionColumnCache columnCache;
+
+    @Transactional(readOnly = true)
+    public FinancialAnalysis analyze(User user, LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Некорректный период анализа");
+        }
+
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpenses = BigDecimal.ZERO;
+        Map<TransactionCategory, BigDecimal> expenses = new EnumMap<>(TransactionCategory.class);
+        BigDecimal uncategorizedExpenses = BigDecimal.ZERO;
+
+        for (CategoryTotal total : loadTotals(user, from, to)) {
+            if (KeywordCategorizer.isIncome(total.getType())) {
+                totalIncome = totalIncome.add(total.getTotalAmount());
+            } else if (isExpense(total.getType())) {
+                totalExpenses = totalExpenses.add(total.getTotalAmount());
+                if (total.getCategory() != null) {
+                    expenses.merge(total.getCategory(), total.getTotalAmount(), BigDecimal::add);
+                } else {
+                    uncategorizedExpenses = uncategorizedExpenses.add(total.getTotalAmount());
+                }
+            }
+        }
+
+        // Крупные категории первыми
+        Map<String, BigDecimal> expensesByCategory = new LinkedHashMap<>();
+        expenses.entrySet().stream()
+                .sorted(Map.Entry.<TransactionCategory, BigDecimal>comparingByValue().reversed())
+                .forEach(entry -> expensesByCategory.put(entry.getKey().name(), entry.getValue()));
+        if (uncategorizedExpenses.signum() != 0) {
+            expensesByCategory.merge(TransactionCategory.OTHER_EXPENSE.name(), uncategorizedExpenses, BigDecimal::add);
+        }
+
+        BigDecimal surplus = totalIncome.subtract(totalExpenses);
+        BigDecimal savingsRate = totalIncome.signum() > 0
+                ? surplus.multiply(BigDecimal.valueOf(100)).divide(totalIncome, 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1;
+
+        return FinancialAnalysis.builder()
+                .totalIncome(totalIncome)
+                .totalExpenses(totalExpenses)
+                .savingsRate(savingsRate)
+                .expensesByCategory(expensesByCategory)
+                .monthlySurplus(surplus.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    /**
+     * Доходы и расходы по месяцам периода. Считается по колоночному кэшу,
+     * колонки пользователя при необходимости загружаются.
+     */
+    public List<MonthlyCashFlow> getMonthlyCashFlow(User user, LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Некорректный период анализа");
+        }
+        TransactionColumns columns = columnCache.get(user);
+        long[] income = columns.monthlySums(from, to, INCOME_TYPES);
+        long[] expenses = columns.monthlySums(from, to, EXPENSE_TYPES);
+
+        YearMonth firstMonth = YearMonth.from(from);
+        List<MonthlyCashFlow> result = new ArrayList<>(income.length);
+        for (int i = 0; i < income.length; i++) {
+            result.add(MonthlyCashFlow.builder()
+                    .month(firstMonth.plusMonths(i))
+                    .income(TransactionColumns.fromTiyn(income[i]))
+                    .expenses(TransactionColumns.fromTiyn(expenses[i]))
+                    .surplus(TransactionColumns.fromTiyn(income[i] - expenses[i]))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Расходами считаются списания на потребление; депозиты и инвестиции - это сбережения.
+     */
+    public static boolean isExpense(TransactionType type) {
+        return type == TransactionType.EXPENSE
+                || type == TransactionType.TRANSFER_OUT
+                || type == TransactionType.WITHDRAWAL
+                || type == TransactionType.LOAN_PAYMENT
+                || type == TransactionType.FEE;
+    }
+
+    private List<CategoryTotal> loadTotals(User user, LocalDate from, LocalDate to) {
+        TransactionColumns columns = columnCache.getIfPresent(user);
+        if (columns != null) {
+            return toCategoryTotals(columns.totalsByTypeAndCategory(from, to));
+        }
+
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.plusMonths(1).withDayOfMonth(1);
+        LocalDate lastFullMonthEnd = to.getDayOfMonth() == to.lengthOfMonth() ? to : to.withDayOfMonth(1).minusDays(1);
+
+        if (firstFullMonth.isAfter(lastFullMonthEnd)) {
+            // В периоде нет ни одного полного месяца
+            return transactionRepository.sumByUserAndDateBetween(user, from, to);
+        }
+
+        List<CategoryTotal> totals = new ArrayList<>(totalsRepository.sumByUserAndMonthBetween(
+                user, firstFullMonth, lastFullMonthEnd.withDayOfMonth(1)));
+        if (from.isBefore(firstFullMonth)) {
+            totals.addAll(transactionRepository.sumByUserAndDateBetween(user, from, firstFullMonth.minusDays(1)));
+        }
+        if (to.isAfter(lastFullMonthEnd)) {
+            totals.addAll(transactionRepository.sumByUserAndDateBetween(user, lastFullMonthEnd.plusDays(1), to));
+        }
+        return totals;
+    }
+
+    private List<CategoryTotal> toCategoryTotals(TransactionColumns.Totals totals) {
+        List<CategoryTotal> result = new ArrayList<>();
+        for (TransactionType type : TYPES_WITH_NONE) {
+            for (TransactionCategory category : CATEGORIES_WITH_NONE) {
+                long count = totals.count(type, category);
+                if (count > 0) {
+                    result.add(new CategoryTotal(type, category,
+                            TransactionColumns.fromTiyn(totals.amount(type, category)), count));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean[] typeMask(Predicate<TransactionType> predicate) {
+        TransactionType[] types = TransactionType.values();
+        boolean[] mask = new boolean[types.length];
+        for (TransactionType type : types) {
+            mask[type.ordinal()] = predicate.test(type);
+        }
+        return mask;
+    }
+
+    private static <T> List<T> withNone(T[] values) {
+        List<T> result = new ArrayList<>(Arrays.asList(values));
+        result.add(null);
+        return result;
+    }
+}
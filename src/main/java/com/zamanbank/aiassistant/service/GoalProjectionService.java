@@ -0,0 +1,152 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.dto.GoalProjection;
+import com.zamanbank.aiassistant.dto.MonthlyCashFlow;
+import com.zamanbank.aiassistant.model.FinancialGoal;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.service.analytics.GoalProjectionSimulator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Прогноз сроков достижения финансовых целей. Взнос месяца моделируется как плановый
+ * {@code monthlyContribution}, сдвинутый на отклонение свободного остатка этого месяца
+ * от среднего за историю: в месяцы с большими расходами пользователь откладывает меньше.
+ * Если плановый взнос не задан, на цель идет весь положительный остаток месяца.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GoalProjectionService {
+
+    private final FinancialAnalysisService analysisService;
+
+    @Value("${app.goals.projection.paths:10000}")
+    private int paths;
+
+    @Value("${app.goals.projection.horizon-months:240}")
+    private int horizonMonths;
+
+    @Value("${app.goals.projection.history-months:12}")
+    private int historyMonths;
+
+    @Value("${app.goals.projection.threads:0}")
+    private int threads;
+
+    private ForkJoinPool projectionPool;
+    private GoalProjectionSimulator simulator;
+
+    @PostConstruct
+    void initProjectionPool() {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        projectionPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("goal-projection-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+        simulator = new GoalProjectionSimulator(projectionPool);
+    }
+
+    @PreDestroy
+    void shutdownProjectionPool() {
+        projectionPool.shutdown();
+    }
+
+    /**
+     * Прогноз для цели, уже проверенной на принадлежность пользователю.
+     */
+    public GoalProjection project(FinancialGoal goal, User user) {
+        long started = System.nanoTime();
+        Long goalId = goal.getId();
+        LocalDate today = LocalDate.now();
+
+        BigDecimal current = goal.getCurrentAmount() != null ? goal.getCurrentAmount() : BigDecimal.ZERO;
+        BigDecimal remaining = goal.getTargetAmount().subtract(current).max(BigDecimal.ZERO);
+        BigDecimal planned = goal.getMonthlyContribution();
+        if (remaining.signum() == 0) {
+            return GoalProjection.builder()
+                    .goalId(goalId)
+                    .remainingAmount(remaining)
+                    .monthlyContribution(planned)
+                    .historyMonths(0)
+                    .simulatedPaths(0)
+                    .optimisticDate(today)
+                    .expectedDate(today)
+                    .pessimisticDate(today)
+                    .onTrackProbability(100.0)
+                    .build();
+        }
+
+        double[] surpluses = loadSurpluses(user, today);
+        double[] contributions = contributions(planned, surpluses);
+        // Тот же seed для неизменной цели: прогноз не «прыгает» между обновлениями экрана
+        long seed = Objects.hash(goalId, remaining, planned, surpluses.length);
+        GoalProjectionSimulator.Result result = simulator.simulate(
+                remaining.doubleValue(), contributions, paths, horizonMonths, seed);
+
+        long monthsToTarget = ChronoUnit.MONTHS.between(today, goal.getTargetDate());
+        GoalProjection projection = GoalProjection.builder()
+                .goalId(goalId)
+                .remainingAmount(remaining)
+                .monthlyContribution(planned)
+                .historyMonths(surpluses.length)
+                .simulatedPaths(result.getPaths())
+                .optimisticDate(dateAt(today, result.monthAtQuantile(0.1)))
+                .expectedDate(dateAt(today, result.monthAtQuantile(0.5)))
+                .pessimisticDate(dateAt(today, result.monthAtQuantile(0.9)))
+                .onTrackProbability(Math.round(result.probabilityWithin((int) Math.max(monthsToTarget, 0)) * 1000) / 10.0)
+                .build();
+        log.debug("Прогноз цели {}: {} путей за {} мс", goalId, result.getPaths(),
+                (System.nanoTime() - started) / 1_000_000);
+        return projection;
+    }
+
+    /**
+     * Свободный остаток по последним полным месяцам; месяцы без операций пропускаются,
+     * чтобы время до начала истории не выглядело как нулевой доход.
+     */
+    private double[] loadSurpluses(User user, LocalDate today) {
+        LocalDate to = today.withDayOfMonth(1).minusDays(1);
+        LocalDate from = to.minusMonths(historyMonths - 1L).withDayOfMonth(1);
+        List<MonthlyCashFlow> cashFlow = analysisService.getMonthlyCashFlow(user, from, to);
+        return cashFlow.stream()
+                .filter(month -> month.getIncome().signum() != 0 || month.getExpenses().signum() != 0)
+                .mapToDouble(month -> month.getSurplus().doubleValue())
+                .toArray();
+    }
+
+    private static double[] contributions(BigDecimal planned, double[] surpluses) {
+        double plannedValue = planned != null ? planned.doubleValue() : 0;
+        if (surpluses.length == 0) {
+            return new double[] {Math.max(plannedValue, 0)};
+        }
+        double mean = 0;
+        for (double surplus : surpluses) {
+            mean += surplus;
+        }
+        mean /= surpluses.length;
+
+        double[] contributions = new double[surpluses.length];
+        for (int i = 0; i < surpluses.length; i++) {
+            double value = plannedValue > 0 ? plannedValue + surpluses[i] - mean : surpluses[i];
+            contributions[i] = Math.max(value, 0);
+        }
+        return contributions;
+    }
+
+    private static LocalDate dateAt(LocalDate today, int month) {
+        return month > 0 ? today.plusMonths(month) : null;
+    }
+}
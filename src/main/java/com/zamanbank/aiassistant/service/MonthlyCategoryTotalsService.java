@@ -0,0 +1,116 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.repository.MonthlyCategoryTotalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Поддерживает таблицу {@code monthly_category_totals} в соответствии с транзакциями.
+ * Вызывается из {@link TransactionService} в той же транзакции БД, что и изменение
+ * самих транзакций, поэтому суммы не расходятся с данными при откате.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyCategoryTotalsService {
+
+    // Одинаковый порядок обновления строк в параллельных импортах исключает взаимные блокировки
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing(RollupKey::userId)
+            .thenComparing(RollupKey::month)
+            .thenComparing(key -> key.type() != null ? key.type().name() : "")
+            .thenComparing(key -> key.category() != null ? key.category().name() : "");
+
+    private final MonthlyCategoryTotalRepository totalsRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Collection<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return;
+        }
+        // Пачка импорта сводится к нескольким строкам на месяц и категорию
+        Map<RollupKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Transaction transaction : transactions) {
+            if (transaction.getUser() != null && transaction.getDate() != null) {
+                accumulate(deltas, keyOf(transaction), transaction.getAmount(), 1);
+            }
+        }
+        flush(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtract(Long userId, LocalDate date, TransactionType type, TransactionCategory category,
+                         BigDecimal amount) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        accumulate(deltas, new RollupKey(userId, date.withDayOfMonth(1), type, category), amount, -1);
+        flush(deltas);
+    }
+
+    /**
+     * Переносит сумму транзакции между строками при изменении даты, типа, категории или суммы.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Long userId, LocalDate oldDate, TransactionType oldType, TransactionCategory oldCategory,
+                     BigDecimal oldAmount, Transaction updated) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        accumulate(deltas, new RollupKey(userId, oldDate.withDayOfMonth(1), oldType, oldCategory), oldAmount, -1);
+        accumulate(deltas, keyOf(updated), updated.getAmount(), 1);
+        flush(deltas);
+    }
+
+    private void accumulate(Map<RollupKey, Delta> deltas, RollupKey key, BigDecimal amount, int sign) {
+        Delta delta = deltas.computeIfAbsent(key, ignored -> new Delta());
+        BigDecimal value = amount != null ? amount : BigDecimal.ZERO;
+        delta.amount = sign > 0 ? delta.amount.add(value) : delta.amount.subtract(value);
+        delta.count += sign;
+    }
+
+    private void flush(Map<RollupKey, Delta> deltas) {
+        boolean subtracted = false;
+        for (Map.Entry<RollupKey, Delta> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.count == 0 && delta.amount.signum() == 0) {
+                continue;
+            }
+            totalsRepository.upsertDelta(key.userId(), key.month(),
+                    key.type() != null ? key.type().name() : null,
+                    key.category() != null ? key.category().name() : null,
+                    delta.amount, delta.count);
+            subtracted |= delta.count < 0;
+        }
+        if (subtracted) {
+            deltas.keySet().stream()
+                    .map(RollupKey::userId)
+                    .distinct()
+                    .forEach(totalsRepository::deleteEmptyByUserId);
+        }
+        log.debug("Обновлено {} строк помесячных сумм", deltas.size());
+    }
+
+    private RollupKey keyOf(Transaction transaction) {
+        return new RollupKey(transaction.getUser().getId(), transaction.getDate().withDayOfMonth(1),
+                transaction.getType(), transaction.getCategory());
+    }
+
+    private record RollupKey(Long userId, LocalDate month, TransactionType type, TransactionCategory category) {
+    }
+
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+    }
+}
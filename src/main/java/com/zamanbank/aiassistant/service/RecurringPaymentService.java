@@ -0,0 +1,109 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.dto.TransactionView;
+import com.zamanbank.aiassistant.model.RecurringPayment;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.repository.RecurringPaymentRepository;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
+import com.zamanbank.aiassistant.service.analytics.RecurringPatternDetector;
+import com.zamanbank.aiassistant.service.analytics.TransactionColumns;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import com.zamanbank.aiassistant.service.categorization.MerchantNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Поиск регулярных платежей и подписок. Пересчет запускается после импорта выписки
+ * только для продавцов, по которым пришли новые операции: история пользователя читается
+ * потоком за окно {@code app.recurring.lookback-days}, в память попадают лишь операции
+ * этих продавцов, а ряды ищет {@link RecurringPatternDetector} одной сортировкой.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringPaymentService {
+
+    private final RecurringPaymentRepository recurringPaymentRepository;
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.recurring.lookback-days:400}")
+    private int lookbackDays;
+
+    @Value("${app.recurring.amount-tolerance:0.15}")
+    private double amountTolerance;
+
+    @Transactional(readOnly = true)
+    public List<RecurringPayment> getRecurringPayments(User user, boolean activeOnly) {
+        return activeOnly
+                ? recurringPaymentRepository.findByUserAndActiveTrueOrderByNextExpectedAsc(user)
+                : recurringPaymentRepository.findByUserOrderByNextExpectedAsc(user);
+    }
+
+    /**
+     * Пересчитывает регулярные платежи пользователя по указанным продавцам.
+     * Ранее найденные ряды этих продавцов заменяются результатом пересчета.
+     */
+    @Transactional
+    public int detectForUser(User user, Set<String> merchantKeys) {
+        if (merchantKeys == null || merchantKeys.isEmpty()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        recurringPaymentRepository.lockUser(user.getId());
+
+        LocalDate today = LocalDate.now();
+        List<RecurringPatternDetector.Occurrence> occurrences = new ArrayList<>();
+        try (Stream<TransactionView> transactions = transactionRepository.streamByUserAndDateBetween(
+                user, today.minusDays(lookbackDays), today)) {
+            transactions.forEach(transaction -> {
+                boolean income = KeywordCategorizer.isIncome(transaction.getType());
+                if (!income && !FinancialAnalysisService.isExpense(transaction.getType())) {
+                    return;
+                }
+                String merchantKey = MerchantNormalizer.merchantKey(transaction.getDescription());
+                if (merchantKeys.contains(merchantKey)) {
+                    occurrences.add(new RecurringPatternDetector.Occurrence(merchantKey, income,
+                            TransactionColumns.toTiyn(transaction.getAmount()),
+                            (int) transaction.getDate().toEpochDay(), transaction.getCategory()));
+                }
+            });
+        }
+
+        List<RecurringPayment> detected = new ArrayList<>();
+        LocalDateTime detectedAt = LocalDateTime.now();
+        for (RecurringPatternDetector.Recurrence recurrence : new RecurringPatternDetector(amountTolerance).detect(occurrences)) {
+            LocalDate lastSeen = LocalDate.ofEpochDay(recurrence.lastDay());
+            detected.add(RecurringPayment.builder()
+                    .user(user)
+                    .merchantKey(recurrence.merchantKey())
+                    .income(recurrence.income())
+                    .category(recurrence.category())
+                    .period(recurrence.period())
+                    .typicalAmount(TransactionColumns.fromTiyn(recurrence.typicalAmount()))
+                    .occurrences(recurrence.occurrences())
+                    .firstSeen(LocalDate.ofEpochDay(recurrence.firstDay()))
+                    .lastSeen(lastSeen)
+                    .nextExpected(recurrence.period().next(lastSeen))
+                    .active(!today.isAfter(lastSeen.plusDays(recurrence.period().getMaxGapDays())))
+                    .detectedAt(detectedAt)
+                    .build());
+        }
+
+        recurringPaymentRepository.deleteByUserAndMerchantKeyIn(user, merchantKeys);
+        recurringPaymentRepository.saveAll(detected);
+        log.info("Пересчитаны регулярные платежи пользователя {}: продавцов {}, операций {}, найдено рядов {} за {} мс",
+                user.getId(), merchantKeys.size(), occurrences.size(), detected.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return detected.size();
+    }
+}
@@ -0,0 +1,96 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.model.SpendingCategoryStat;
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.repository.SpendingCategoryStatRepository;
+import com.zamanbank.aiassistant.service.analytics.SpendingStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Отмечает необычные расходы при импорте. Каждая операция оценивается по скользящей
+ * статистике категории пользователя ({@link SpendingStats}) и сразу учитывается в ней,
+ * поэтому история транзакций не перечитывается: на пачку читается и записывается
+ * по строке {@code spending_category_stats} на затронутую категорию.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendingAnomalyService {
+
+    private static final Comparator<Transaction> BY_DATE = Comparator.comparing(Transaction::getDate);
+
+    private final SpendingCategoryStatRepository statsRepository;
+
+    @Value("${app.anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.anomaly.alpha:0.1}")
+    private double alpha;
+
+    @Value("${app.anomaly.min-observations:5}")
+    private int minObservations;
+
+    @Value("${app.anomaly.score-threshold:3.0}")
+    private double scoreThreshold;
+
+    @Value("${app.anomaly.new-category-min-history:30}")
+    private int newCategoryMinHistory;
+
+    /**
+     * Оценивает новые транзакции пользователя до их сохранения: у необычных расходов
+     * заполняются {@code anomalyType} и {@code anomalyScore}.
+     *
+     * @return число отмеченных транзакций
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int assess(User user, List<Transaction> transactions) {
+        if (!enabled || transactions == null || transactions.isEmpty()) {
+            return 0;
+        }
+
+        // Статистика накапливается по времени, поэтому расходы пачки идут в порядке дат
+        List<Transaction> expenses = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (FinancialAnalysisService.isExpense(transaction.getType()) && transaction.getAmount() != null) {
+                expenses.add(transaction);
+            }
+        }
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        expenses.sort(BY_DATE);
+
+        statsRepository.lockUser(user.getId());
+        SpendingStats stats = new SpendingStats(alpha, minObservations, scoreThreshold, newCategoryMinHistory);
+        for (SpendingCategoryStat stat : statsRepository.findByUserId(user.getId())) {
+            stats.load(stat.getCategory(), stat.getObservations(), stat.getEwmaMean(), stat.getEwmaVariance());
+        }
+
+        int flagged = 0;
+        for (Transaction transaction : expenses) {
+            SpendingStats.Assessment assessment = stats.observe(transaction.getCategory(), transaction.getAmount());
+            if (assessment.type() != null) {
+                transaction.setAnomalyType(assessment.type());
+                transaction.setAnomalyScore(Math.round(assessment.score() * 100) / 100.0);
+                flagged++;
+            }
+        }
+
+        for (SpendingStats.Slot slot : stats.changedSlots()) {
+            statsRepository.upsert(user.getId(), slot.category() != null ? slot.category().name() : null,
+                    slot.observations(), slot.mean(), slot.variance());
+        }
+        log.debug("Оценено расходов: {}, отмечено необычных: {}", expenses.size(), flagged);
+        return flagged;
+    }
+}
@@ -0,0 +1,335 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.dto.bank.BankStatement;
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.dto.bank.IngestionJobResponse;
+import com.zamanbank.aiassistant.mapper.BankStatementMapper;
+import com.zamanbank.aiassistant.model.ImportedStatement;
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.IngestionJobStatus;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.repository.ImportedStatementRepository;
+import com.zamanbank.aiassistant.service.categorization.MerchantNormalizer;
+import com.zamanbank.aiassistant.service.parser.BankStatementParserService;
+import com.zamanbank.aiassistant.service.parser.StatementParseListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая обработка загруженных выписок: парсинг, категоризация и сохранение
+ * выполняются на отдельном ограниченном пуле, а клиент опрашивает статус задачи.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatementIngestionService {
+
+    private final BankStatementParserService parserService;
+    private final BankStatementMapper mapper;
+    private final TransactionService transactionService;
+    private final ImportedStatementRepository importedStatementRepository;
+    private final RecurringPaymentService recurringPaymentService;
+
+    @Value("${app.ingestion.threads:4}")
+    private int threads;
+
+    @Value("${app.ingestion.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.ingestion.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.ingestion.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void initExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // AbortPolicy: при заполненной очереди задача отклоняется, контроллер отвечает 429
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "statement-ingestion-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Ранее импортированная выписка с тем же содержимым, если есть.
+     */
+    public Optional<ImportedStatement> findImportedStatement(User user, String contentHash) {
+        return importedStatementRepository.findByUserAndContentHash(user, contentHash);
+    }
+
+    /**
+     * Ставит файл в очередь на обработку. Файл удаляется после завершения задачи.
+     * Если тот же файл этого пользователя уже обрабатывается, возвращается активная задача,
+     * а переданный файл удаляется.
+     *
+     * @throws RejectedExecutionException если очередь заполнена
+     */
+    public IngestionJobResponse submit(Path filePath, String fileName, String contentHash, long fileSize, User user) {
+        purgeFinishedJobs();
+
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), fileName, contentHash, fileSize, user.getId());
+        synchronized (jobs) {
+            Optional<IngestionJob> active = jobs.values().stream()
+                    .filter(existing -> existing.finishedAt == null
+                            && existing.userId.equals(user.getId())
+                            && existing.contentHash.equals(contentHash))
+                    .findFirst();
+            if (active.isPresent()) {
+                log.info("Выписка {} уже обрабатывается в задаче {}", fileName, active.get().id);
+                deleteFile(filePath);
+                return active.get().toResponse();
+            }
+            jobs.put(job.id, job);
+        }
+
+        try {
+            executor.execute(() -> runJob(job, filePath, user));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+
+        log.info("Выписка {} поставлена в очередь, задача {}", fileName, job.id);
+        return job.toResponse();
+    }
+
+    public Optional<IngestionJobResponse> getJob(String jobId, User user) {
+        IngestionJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(user.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(job.toResponse());
+    }
+
+    private void runJob(IngestionJob job, Path filePath, User user) {
+        job.status = IngestionJobStatus.RUNNING;
+        List<BankTransaction> chunk = new ArrayList<>(chunkSize);
+
+        try {
+            BankStatement statement = parserService.parseStatement(filePath.toString(), new StatementParseListener() {
+                @Override
+                public void onTransaction(BankTransaction transaction) {
+                    job.transactionsParsed.incrementAndGet();
+                    chunk.add(transaction);
+                    if (chunk.size() >= chunkSize) {
+                        saveChunk(job, chunk, user);
+                    }
+                }
+
+                @Override
+                public void onPageParsed(int page, int totalPages) {
+                    job.pagesParsed = page;
+                    job.totalPages = totalPages;
+                }
+            });
+            saveChunk(job, chunk, user);
+            job.matchedDuplicates.clear();
+            detectRecurringPayments(job, user);
+
+            job.periodFrom = statement.getPeriodFrom();
+            job.periodTo = statement.getPeriodTo();
+            if (job.errors.isEmpty()) {
+                recordImport(job, user);
+                job.finish(IngestionJobStatus.COMPLETED);
+            } else {
+                // Выписка разобрана, но часть пакетов не сохранилась: импорт не засчитывается
+                job.finish(IngestionJobStatus.PARTIAL);
+            }
+            log.info("Задача {} завершена со статусом {}: сохранено {} транзакций, пропущено дубликатов {}",
+                    job.id, job.status, job.transactionsSaved.get(), job.duplicatesSkipped.get());
+        } catch (Exception e) {
+            log.error("Ошибка при обработке выписки в задаче {}", job.id, e);
+            job.errors.add("Ошибка при обработке файла: " + e.getMessage());
+            job.finish(IngestionJobStatus.FAILED);
+        } finally {
+            deleteFile(filePath);
+        }
+    }
+
+    private void saveChunk(IngestionJob job, List<BankTransaction> chunk, User user) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Transaction> transactions = transactionService.saveAllSkippingDuplicates(
+                    user, job.id, mapper.mapToTransactions(chunk, user), job.matchedDuplicates);
+            job.duplicatesSkipped.addAndGet(chunk.size() - transactions.size());
+
+            for (Transaction transaction : transactions) {
+                if (transaction.getType() == TransactionType.INCOME) {
+                    job.totalIncome = job.totalIncome.add(transaction.getAmount());
+                } else if (transaction.getType() == TransactionType.EXPENSE) {
+                    job.totalExpenses = job.totalExpenses.add(transaction.getAmount());
+                }
+                if (transaction.getAnomalyType() != null) {
+                    job.anomaliesFlagged.incrementAndGet();
+                }
+                String merchantKey = MerchantNormalizer.merchantKey(transaction.getDescription());
+                if (!merchantKey.isEmpty()) {
+                    job.touchedMerchants.add(merchantKey);
+                }
+            }
+            job.transactionsSaved.addAndGet(transactions.size());
+        } catch (Exception e) {
+            // Ошибка одной пачки не останавливает импорт остальных
+            log.error("Не удалось сохранить пачку из {} транзакций в задаче {}", chunk.size(), job.id, e);
+            job.errors.add("Не удалось сохранить " + chunk.size() + " транзакций: " + e.getMessage());
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Пересчитывает регулярные платежи по продавцам, у которых появились новые операции.
+     * Ошибка пересчета не влияет на результат импорта.
+     */
+    private void detectRecurringPayments(IngestionJob job, User user) {
+        if (job.touchedMerchants.isEmpty()) {
+            return;
+        }
+        try {
+            recurringPaymentService.detectForUser(user, job.touchedMerchants);
+        } catch (Exception e) {
+            log.warn("Не удалось пересчитать регулярные платежи в задаче {}", job.id, e);
+        } finally {
+            job.touchedMerchants.clear();
+        }
+    }
+
+    /**
+     * Запоминает хэш файла, чтобы повторная загрузка не запускала парсинг.
+     * Выписка с ошибками сохранения не запоминается: ее можно загрузить снова.
+     */
+    private void recordImport(IngestionJob job, User user) {
+        try {
+            importedStatementRepository.save(ImportedStatement.builder()
+                    .user(user)
+                    .contentHash(job.contentHash)
+                    .importId(job.id)
+                    .fileName(job.fileName)
+                    .fileSize(job.fileSize)
+                    .transactionsCount(job.transactionsSaved.get() + job.duplicatesSkipped.get())
+                    .importedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Параллельная загрузка того же файла уже записала импорт
+            log.info("Импорт выписки {} уже зарегистрирован", job.fileName);
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private void deleteFile(Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл: {}", filePath, e);
+        }
+    }
+
+    /**
+     * Состояние задачи. Изменяется только потоком обработки, читается при опросе статуса.
+     */
+    private static final class IngestionJob {
+        private final String id;
+        private final String fileName;
+        private final String contentHash;
+        private final long fileSize;
+        private final Long userId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong transactionsParsed = new AtomicLong();
+        private final AtomicLong transactionsSaved = new AtomicLong();
+        private final AtomicLong duplicatesSkipped = new AtomicLong();
+        private final AtomicLong anomaliesFlagged = new AtomicLong();
+        // Сопоставленные с существующими записями ключи; используется только потоком обработки
+        private final Map<TransactionDedupKey, Integer> matchedDuplicates = new HashMap<>();
+        // Продавцы сохраненных операций для пересчета регулярных платежей; только поток обработки
+        private final Set<String> touchedMerchants = new HashSet<>();
+        private final List<String> errors = new CopyOnWriteArrayList<>();
+        private volatile IngestionJobStatus status = IngestionJobStatus.QUEUED;
+        private volatile int pagesParsed;
+        private volatile int totalPages;
+        private volatile BigDecimal totalIncome = BigDecimal.ZERO;
+        private volatile BigDecimal totalExpenses = BigDecimal.ZERO;
+        private volatile LocalDate periodFrom;
+        private volatile LocalDate periodTo;
+        private volatile LocalDateTime finishedAt;
+
+        private IngestionJob(String id, String fileName, String contentHash, long fileSize, Long userId) {
+            this.id = id;
+            this.fileName = fileName;
+            this.contentHash = contentHash;
+            this.fileSize = fileSize;
+            this.userId = userId;
+        }
+
+        private void finish(IngestionJobStatus finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private IngestionJobResponse toResponse() {
+            return IngestionJobResponse.builder()
+                    .jobId(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .pagesParsed(pagesParsed)
+                    .totalPages(totalPages)
+                    .transactionsParsed(transactionsParsed.get())
+                    .transactionsSaved(transactionsSaved.get())
+                    .duplicatesSkipped(duplicatesSkipped.get())
+                    .anomaliesFlagged(anomaliesFlagged.get())
+                    .totalIncome(totalIncome)
+                    .totalExpenses(totalExpenses)
+                    .periodFrom(periodFrom)
+                    .periodTo(periodTo)
+                    .errors(List.copyOf(errors))
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
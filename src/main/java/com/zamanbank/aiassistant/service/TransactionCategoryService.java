@@ -1,36 +1,140 @@
 package com.zamanbank.aiassistant.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.service.categorization.CategoryRuleSet;
+import com.zamanbank.aiassistant.service.categorization.CategoryRulesReloadedEvent;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-// src/main/java/com/zamanbank/aiassistant/service/TransactionCategoryService.java
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionCategoryService {
 
+  private final ResourceLoader resourceLoader;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionClassifierService classifierService;
+
+  @Value("${app.categorization.rules-location:classpath:categorization/rules.json}")
+  private String rulesLocation;
+
+  /**
+   * Текущий скомпилированный набор правил. Категоризация читает ссылку без блокировок,
+   * перезагрузка собирает новый автомат целиком и только затем публикует его.
+   */
+  private final AtomicReference<RulesSnapshot> rules = new AtomicReference<>();
+
+  private final Object reloadLock = new Object();
+
+  // Номер набора правил; наборы собираются по очереди, поэтому номер растет в порядке публикации
+  private final AtomicLong generations = new AtomicLong();
+
+  @PostConstruct
+  void loadRules() throws IOException {
+    RulesSnapshot snapshot = compileRules();
+    rules.set(snapshot);
+    log.info("Загружено {} правил категоризации ({} ключевых слов) из {}",
+      snapshot.categorizer().getRuleCount(), snapshot.categorizer().getKeywordCount(), rulesLocation);
+  }
+
+  /**
+   * Перечитывает файл правил и атомарно заменяет набор. При ошибке чтения или разбора
+   * продолжает действовать прежний набор. Одновременные перезагрузки выполняются по очереди.
+   */
+  public RulesSnapshot reloadRules() {
+    synchronized (reloadLock) {
+      RulesSnapshot snapshot;
+      try {
+        snapshot = compileRules();
+      } catch (IOException | RuntimeException e) {
+        log.error("Не удалось перезагрузить правила категоризации из {}", rulesLocation, e);
+        throw new RuntimeException("Ошибка загрузки правил категоризации: " + e.getMessage(), e);
+      }
+      rules.set(snapshot);
+      log.info("Правила категоризации перезагружены: {} правил ({} ключевых слов) из {}",
+        snapshot.categorizer().getRuleCount(), snapshot.categorizer().getKeywordCount(), rulesLocation);
+      eventPublisher.publishEvent(new CategoryRulesReloadedEvent(snapshot.loadedAt()));
+      return snapshot;
+    }
+  }
+
+  public RulesSnapshot getRulesSnapshot() {
+    return rules.get();
+  }
+
+  public String getRulesLocation() {
+    return rulesLocation;
+  }
+
   public TransactionCategory categorizeTransaction(String description) {
-    // Простая логика категоризации (пока без AI)
-    if (description.toLowerCase().contains("еда") ||
-      description.toLowerCase().contains("магазин") ||
-      description.toLowerCase().contains("супермаркет")) {
-      return TransactionCategory.FOOD;
+    return categorizeTransaction(description, TransactionType.EXPENSE);
+  }
+
+  /**
+   * Категория по ключевым словам описания, а если ни одно правило не подошло -
+   * по классификатору, обученному на подтвержденных категориях.
+   */
+  public TransactionCategory categorizeTransaction(String description, TransactionType type) {
+    TransactionCategory category = categorizeByRules(description, type);
+    return category != null ? category : fallbackCategory(description, type);
+  }
+
+  /**
+   * Категория только по правилам или {@code null}, если ни одно правило не подошло.
+   * Результат зависит лишь от набора правил, поэтому его можно кэшировать.
+   */
+  public TransactionCategory categorizeByRules(String description, TransactionType type) {
+    return rules.get().categorizer().categorize(description, type);
+  }
+
+  /**
+   * Ответ классификатора, иначе прочий доход или прочий расход в зависимости от типа операции.
+   */
+  public TransactionCategory fallbackCategory(String description, TransactionType type) {
+    TransactionCategory category = classifierService.classify(description, type);
+    if (category != null) {
+      return category;
     }
+    return KeywordCategorizer.isIncome(type)
+      ? TransactionCategory.OTHER_INCOME
+      : TransactionCategory.OTHER_EXPENSE;
+  }
 
-    if (description.toLowerCase().contains("транспорт") ||
-      description.toLowerCase().contains("автобус") ||
-      description.toLowerCase().contains("такси")) {
-      return TransactionCategory.TRANSPORT;
+  private RulesSnapshot compileRules() throws IOException {
+    CategoryRuleSet ruleSet = readRules();
+    if (ruleSet == null || ruleSet.rules().isEmpty()) {
+      throw new IllegalStateException("Файл правил не содержит ни одного правила: " + rulesLocation);
     }
+    return new RulesSnapshot(new KeywordCategorizer(ruleSet.rules()), generations.incrementAndGet(),
+      LocalDateTime.now());
+  }
 
-    if (description.toLowerCase().contains("аптека") ||
-      description.toLowerCase().contains("здоровье") ||
-      description.toLowerCase().contains("медицина")) {
-      return TransactionCategory.HEALTH;
+  private CategoryRuleSet readRules() throws IOException {
+    Resource resource = resourceLoader.getResource(rulesLocation);
+    try (InputStream inputStream = resource.getInputStream()) {
+      return objectMapper.readValue(inputStream, CategoryRuleSet.class);
     }
+  }
 
-    return TransactionCategory.OTHER;
+  /**
+   * Неизменяемый набор правил вместе с номером и временем загрузки. Порядок наборов
+   * определяется номером: время может совпасть у двух перезагрузок или пойти назад.
+   */
+  public record RulesSnapshot(KeywordCategorizer categorizer, long generation, LocalDateTime loadedAt) {
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import com.zamanbank.aiassistant.service.categorization.NaiveBayesModel;
+import com.zamanbank.aiassistant.service.categorization.NaiveBayesTrainer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Классификатор описаний транзакций (наивный Байес), обученный на категориях,
+ * подтвержденных пользователями. Используется, когда не сработало ни одно правило.
+ * <p>
+ * Все изменения счетчиков и пересборка модели выполняются в одном фоновом потоке.
+ * Готовая модель публикуется через volatile-ссылку, поэтому классификация
+ * никогда не ждет обучения.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionClassifierService {
+
+    private final TransactionRepository transactionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.categorization.bayes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.categorization.bayes.feature-bits:16}")
+    private int featureBits;
+
+    @Value("${app.categorization.bayes.alpha:0.1}")
+    private double alpha;
+
+    @Value("${app.categorization.bayes.min-documents:50}")
+    private long minDocuments;
+
+    @Value("${app.categorization.bayes.min-confidence:0.6}")
+    private double minConfidence;
+
+    private NaiveBayesTrainer trainer;
+    private ExecutorService trainingExecutor;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicLong pendingUpdates = new AtomicLong();
+
+    private volatile NaiveBayesModel model;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        trainer = new NaiveBayesTrainer(featureBits);
+        trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-classifier-training");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (trainingExecutor != null) {
+            trainingExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Первичное обучение по всем подтвержденным категориям запускается после старта,
+     * чтобы не задерживать поднятие приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void trainOnStartup() {
+        if (enabled) {
+            trainingExecutor.execute(this::trainFromConfirmedTransactions);
+        }
+    }
+
+    /**
+     * Категория по модели или {@code null}, если модель еще не обучена
+     * или не уверена в ответе.
+     */
+    public TransactionCategory classify(String description, TransactionType type) {
+        NaiveBayesModel current = model;
+        boolean income = KeywordCategorizer.isIncome(type);
+        if (current == null || current.getDocuments(income) < minDocuments) {
+            return null;
+        }
+        return current.classify(description, income, minConfidence);
+    }
+
+    /**
+     * Учитывает подтверждение категории пользователем. Если ранее для этой транзакции
+     * уже была подтверждена другая категория, ее вклад вычитается.
+     */
+    public void onCategoryConfirmed(String description, TransactionType type,
+                                    TransactionCategory previous, TransactionCategory confirmed) {
+        if (!enabled || previous == confirmed) {
+            return;
+        }
+        pendingUpdates.incrementAndGet();
+        trainingExecutor.execute(() -> {
+            if (previous != null) {
+                trainer.remove(description, type, previous);
+            }
+            trainer.add(description, type, confirmed);
+        });
+        scheduleRebuild();
+    }
+
+    private void trainFromConfirmedTransactions() {
+        long started = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        try {
+            template.executeWithoutResult(status -> {
+                try (Stream<TransactionRepository.CategorySampleView> samples =
+                             transactionRepository.streamConfirmedCategorySamples()) {
+                    samples.forEach(sample -> trainer.add(sample.getDescription(), sample.getType(), sample.getCategory()));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Классификатор продолжит обучаться на новых подтверждениях
+            log.error("Ошибка при первичном обучении классификатора категорий", e);
+        }
+        rebuildModel();
+        log.info("Классификатор категорий обучен на {} транзакциях за {} мс",
+                trainer.getDocuments(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Пересборка ставится в очередь после уже поставленных обновлений, поэтому
+     * подтверждения, пришедшие пачкой, дают одну пересборку.
+     */
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            trainingExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                long updates = pendingUpdates.getAndSet(0);
+                rebuildModel();
+                log.debug("Модель классификатора пересобрана после {} подтверждений", updates);
+            });
+        }
+    }
+
+    private void rebuildModel() {
+        model = trainer.build(alpha);
+    }
+}
@@ -0,0 +1,25 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ключ дедупликации транзакций: дата, сумма, тип и хэш описания. Тип нужен, потому что
+ * сумма хранится без знака и возврат совпал бы со списанием того же дня.
+ * Сумма нормализуется, чтобы 100 и 100.00 совпадали.
+ */
+public record TransactionDedupKey(LocalDate date, BigDecimal amount, TransactionType type,
+                                  long descriptionHash) {
+
+    public TransactionDedupKey {
+        amount = amount.stripTrailingZeros();
+    }
+
+    public static TransactionDedupKey of(Transaction transaction) {
+        return new TransactionDedupKey(transaction.getDate(), transaction.getAmount(), transaction.getType(),
+                Transaction.hashDescription(transaction.getDescription()));
+    }
+}
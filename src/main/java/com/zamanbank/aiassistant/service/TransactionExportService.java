@@ -0,0 +1,137 @@
+package com.zamanbank.aiassistant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zamanbank.aiassistant.dto.TransactionView;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка транзакций пользователя в CSV или NDJSON. Строки читаются курсором
+ * и сразу пишутся в ответ, поэтому расход памяти не зависит от числа записей.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    private static final char CSV_DELIMITER = ';';
+    private static final LocalDate MIN_EXPORT_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_EXPORT_DATE = LocalDate.of(9999, 12, 31);
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Пишет транзакции за период (границы необязательны) в поток в порядке даты.
+     * Транзакция только на чтение держит курсор открытым до конца выгрузки.
+     */
+    @Transactional(readOnly = true)
+    public long export(User user, LocalDate from, LocalDate to, Format format, boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<TransactionView> transactions = streamTransactions(user, from, to)) {
+            if (format == Format.CSV) {
+                writer.write("id;date;type;category;amount;description\n");
+            }
+            Iterator<TransactionView> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                TransactionView transaction = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+            writer.flush();
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        }
+
+        log.info("Выгружено {} транзакций пользователя {} в формате {}", rows, user.getId(), format);
+        return rows;
+    }
+
+    private Stream<TransactionView> streamTransactions(User user, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return transactionRepository.streamByUser(user);
+        }
+        return transactionRepository.streamByUserAndDateBetween(user,
+                from != null ? from : MIN_EXPORT_DATE,
+                to != null ? to : MAX_EXPORT_DATE);
+    }
+
+    private void writeCsvRow(Writer writer, TransactionView transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(CSV_DELIMITER);
+        writer.write(String.valueOf(transaction.getDate()));
+        writer.write(CSV_DELIMITER);
+        writer.write(transaction.getType() != null ? transaction.getType().name() : "");
+        writer.write(CSV_DELIMITER);
+        writer.write(transaction.getCategory() != null ? transaction.getCategory().name() : "");
+        writer.write(CSV_DELIMITER);
+        writer.write(transaction.getAmount() != null ? transaction.getAmount().toPlainString() : "");
+        writer.write(CSV_DELIMITER);
+        writeCsvText(writer, transaction.getDescription());
+        writer.write('\n');
+    }
+
+    private void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == CSV_DELIMITER || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,23 +1,41 @@
 package com.zamanbank.aiassistant.service;
 
+import com.zamanbank.aiassistant.dto.TransactionHistoryPage;
+import com.zamanbank.aiassistant.dto.TransactionSummary;
+import com.zamanbank.aiassistant.dto.TransactionView;
 import com.zamanbank.aiassistant.model.Transaction;
 import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
 import com.zamanbank.aiassistant.model.enums.TransactionType;
 import com.zamanbank.aiassistant.repository.TransactionRepository;
+import com.zamanbank.aiassistant.service.analytics.TransactionColumnCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     private final TransactionRepository transactionRepository;
+    private final TransactionClassifierService classifierService;
+    private final MonthlyCategoryTotalsService monthlyTotalsService;
+    private final TransactionColumnCache columnCache;
+    private final SpendingAnomalyService anomalyService;
     
     @Transactional
     public void saveAll(List<Transaction> transactions) {
@@ -26,10 +44,80 @@ public class TransactionService {
             return;
         }
         
+        // Новые записи добавляются к помесячным суммам, у измененных сумма сначала вычитается
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() != null) {
+                retractStoredVersion(transaction.getId());
+            }
+        }
         transactionRepository.saveAll(transactions);
+        monthlyTotalsService.add(transactions);
+        publishAdded(transactions);
         log.info("Сохранено {} транзакций", transactions.size());
     }
     
+    /**
+     * Сохраняет импортированные транзакции, пропуская уже существующие в базе
+     * с той же датой, суммой и описанием. Одинаковые операции внутри выписки не схлопываются:
+     * каждая существующая запись «погашает» не больше одной новой.
+     *
+     * @param matchedDuplicates сколько раз каждый ключ уже был сопоставлен в этом импорте;
+     *                          общий для всех пачек одного импорта
+     * @return сохраненные транзакции
+     */
+    @Transactional
+    public List<Transaction> saveAllSkippingDuplicates(User user, String importId,
+                                                       List<Transaction> transactions,
+                                                       Map<TransactionDedupKey, Integer> matchedDuplicates) {
+        if (transactions == null || transactions.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDate start = transactions.get(0).getDate();
+        LocalDate end = start;
+        for (Transaction transaction : transactions) {
+            start = transaction.getDate().isBefore(start) ? transaction.getDate() : start;
+            end = transaction.getDate().isAfter(end) ? transaction.getDate() : end;
+        }
+
+        Map<TransactionDedupKey, Integer> existing = new HashMap<>();
+        for (TransactionRepository.DedupKeyView view : transactionRepository.findDedupKeys(user, start, end, importId)) {
+            long descriptionHash = view.getDescriptionHash() != null
+                    ? view.getDescriptionHash()
+                    : Transaction.hashDescription(view.getDescription());
+            existing.merge(new TransactionDedupKey(view.getDate(), view.getAmount(), view.getType(), descriptionHash), 1, Integer::sum);
+        }
+
+        List<Transaction> fresh = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            transaction.setImportId(importId);
+            TransactionDedupKey key = TransactionDedupKey.of(transaction);
+            int available = existing.getOrDefault(key, 0) - matchedDuplicates.getOrDefault(key, 0);
+            if (available > 0) {
+                matchedDuplicates.merge(key, 1, Integer::sum);
+            } else {
+                fresh.add(transaction);
+            }
+        }
+
+        if (!fresh.isEmpty()) {
+            anomalyService.assess(user, fresh);
+            transactionRepository.saveAll(fresh);
+            monthlyTotalsService.add(fresh);
+            publishAdded(fresh);
+        }
+        log.info("Сохранено {} транзакций, пропущено дубликатов: {}", fresh.size(), transactions.size() - fresh.size());
+        return fresh;
+    }
+
+    /**
+     * Необычные расходы за период, отмеченные при импорте, новые первыми.
+     */
+    @Transactional(readOnly = true)
+    public List<Transaction> findAnomalies(User user, LocalDate start, LocalDate end) {
+        return transactionRepository.findAnomalies(user, start, end);
+    }
+
     @Transactional(readOnly = true)
     public List<Transaction> findByUser(User user) {
         return transactionRepository.findByUser(user);
@@ -47,22 +135,130 @@ public class TransactionService {
     
     @Transactional
     public Transaction save(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        if (transaction.getId() != null) {
+            retractStoredVersion(transaction.getId());
+        }
+        Transaction saved = transactionRepository.save(transaction);
+        monthlyTotalsService.add(List.of(saved));
+        publishAdded(List.of(saved));
+        return saved;
     }
     
     @Transactional
     public void deleteById(Long id) {
+        retractStoredVersion(id);
         transactionRepository.deleteById(id);
         log.info("Удалена транзакция с ID: {}", id);
     }
     
+    /**
+     * Убирает транзакцию в том виде, в каком она сохранена в базе, из помесячных сумм
+     * и сбрасывает колонки пользователя после коммита.
+     */
+    private void retractStoredVersion(Long id) {
+        transactionRepository.findRollupKeyById(id).ifPresent(stored -> {
+            monthlyTotalsService.subtract(stored.getUserId(), stored.getDate(),
+                    stored.getType(), stored.getCategory(), stored.getAmount());
+            afterCommit(() -> columnCache.invalidate(stored.getUserId()));
+        });
+    }
+    
+    /**
+     * После коммита вливает сохраненные транзакции в загруженные колонки пользователей.
+     */
+    private void publishAdded(Collection<Transaction> transactions) {
+        Map<Long, List<Transaction>> byUser = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getUser() != null && transaction.getId() != null) {
+                byUser.computeIfAbsent(transaction.getUser().getId(), ignored -> new ArrayList<>()).add(transaction);
+            }
+        }
+        if (!byUser.isEmpty()) {
+            afterCommit(() -> byUser.forEach(columnCache::onTransactionsAdded));
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Пользователь подтверждает или исправляет категорию транзакции. Подтвержденные
+     * категории после коммита передаются в обучение классификатора.
+     */
+    @Transactional
+    public Transaction confirmCategory(User user, Long transactionId, TransactionCategory category) {
+        if (category == null) {
+            throw new RuntimeException("Не указана категория");
+        }
+        Transaction transaction = transactionRepository.findByIdAndUser(transactionId, user)
+                .orElseThrow(() -> new RuntimeException("Транзакция не найдена"));
+
+        TransactionCategory previous = transaction.isCategoryConfirmed() ? transaction.getCategory() : null;
+        TransactionCategory oldCategory = transaction.getCategory();
+        transaction.setCategory(category);
+        transaction.setCategoryConfirmed(true);
+        if (oldCategory != category) {
+            monthlyTotalsService.move(user.getId(), transaction.getDate(), transaction.getType(), oldCategory,
+                    transaction.getAmount(), transaction);
+            afterCommit(() -> columnCache.invalidate(user.getId()));
+        }
+
+        String description = transaction.getDescription();
+        TransactionType type = transaction.getType();
+        afterCommit(() -> classifierService.onCategoryConfirmed(description, type, previous, category));
+        log.info("Категория транзакции {} подтверждена: {}", transactionId, category);
+        return transaction;
+    }
+    
     @Transactional(readOnly = true)
     public List<Transaction> findAll() {
         return transactionRepository.findAll();
     }
     
+    /**
+     * Страница истории по ключу (дата, id) последней записи предыдущей страницы.
+     * Время ответа не зависит от глубины прокрутки, в отличие от OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryPage getHistory(User user, LocalDate beforeDate, Long beforeId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        Limit limit = Limit.of(pageSize + 1);
+        List<TransactionView> items = beforeDate != null && beforeId != null
+                ? transactionRepository.findHistoryBefore(user, beforeDate, beforeId, limit)
+                : transactionRepository.findHistory(user, limit);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        TransactionView last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return TransactionHistoryPage.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextBeforeDate(hasMore ? last.getDate() : null)
+                .nextBeforeId(hasMore ? last.getId() : null)
+                .build();
+    }
+    
     @Transactional(readOnly = true)
     public long countByUser(User user) {
-        return transactionRepository.findByUser(user).size();
+        return transactionRepository.countByUser(user);
+    }
+    
+    @Transactional(readOnly = true)
+    public TransactionSummary summarizeByUser(User user) {
+        return transactionRepository.summarizeByUser(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.zamanbank.aiassistant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zamanbank.aiassistant.exception.InvalidRequestException;
+import com.zamanbank.aiassistant.exception.ResourceNotFoundException;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.UserCategoryRule;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.repository.UserCategoryRuleRepository;
+import com.zamanbank.aiassistant.service.categorization.CategoryRule;
+import com.zamanbank.aiassistant.service.categorization.KeywordCategorizer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Пользовательские правила категоризации. Правила пользователя компилируются
+ * в {@link KeywordCategorizer} при первом обращении и хранятся в памяти до изменения,
+ * поэтому при импорте категоризация не делает запросов к базе.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCategoryRuleService {
+
+    private static final KeywordCategorizer NO_RULES = new KeywordCategorizer(List.of());
+
+    private final UserCategoryRuleRepository ruleRepository;
+
+    @Value("${app.categorization.user-rules.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${app.categorization.user-rules.expire-after-access:PT1H}")
+    private Duration expireAfterAccess;
+
+    private Cache<Long, KeywordCategorizer> compiledRules;
+
+    @PostConstruct
+    void initCache() {
+        compiledRules = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserCategoryRule> getRules(User user) {
+        return ruleRepository.findByUserOrderByCreatedAtDesc(user);
+    }
+
+    @Transactional
+    public UserCategoryRule createRule(User user, String keyword, TransactionCategory category,
+                                       TransactionType transactionType, Integer priority) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new InvalidRequestException("Ключевое слово правила не может быть пустым");
+        }
+        if (category == null) {
+            throw new InvalidRequestException("Не указана категория правила");
+        }
+
+        UserCategoryRule rule = UserCategoryRule.builder()
+                .user(user)
+                .keyword(keyword.trim())
+                .category(category)
+                .transactionType(transactionType)
+                .build();
+        if (priority != null) {
+            rule.setPriority(priority);
+        }
+
+        UserCategoryRule savedRule = ruleRepository.save(rule);
+        invalidateAfterCommit(user.getId());
+        log.info("Создано правило категоризации {} для пользователя {}", savedRule.getId(), user.getId());
+        return savedRule;
+    }
+
+    @Transactional
+    public void deleteRule(Long ruleId, User user) {
+        UserCategoryRule rule = ruleRepository.findByIdAndUser(ruleId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Правило не найдено"));
+        ruleRepository.delete(rule);
+        invalidateAfterCommit(user.getId());
+        log.info("Удалено правило категоризации {} пользователя {}", ruleId, user.getId());
+    }
+
+    /**
+     * Скомпилированные правила пользователя. Вызывается один раз на пачку импорта,
+     * дальнейшая проверка строк идет только в памяти.
+     */
+    public KeywordCategorizer getCompiledRules(User user) {
+        return compiledRules.get(user.getId(), this::compileRules);
+    }
+
+    private KeywordCategorizer compileRules(Long userId) {
+        List<UserCategoryRule> rules = ruleRepository.findByUserId(userId);
+        if (rules.isEmpty()) {
+            return NO_RULES;
+        }
+        return new KeywordCategorizer(rules.stream()
+                .map(rule -> new CategoryRule(rule.getCategory(), rule.getTransactionType(),
+                        rule.getPriority(), List.of(rule.getKeyword())))
+                .toList());
+    }
+
+    /**
+     * Сброс после коммита: иначе параллельный импорт может успеть загрузить старые правила.
+     */
+    private void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            compiledRules.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                compiledRules.invalidate(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Моделирование накоплений на цель методом Монте-Карло. Каждый путь - последовательность
+ * месячных взносов, выбранных с возвращением из взносов, возможных в прошлые месяцы
+ * (bootstrap). Для пути запоминается месяц, в котором накопления достигли остатка цели.
+ * Пути хранятся в массиве {@code int[]} и считаются листами по {@link #LEAF_PATHS}
+ * на переданном fork-join пуле; у каждого листа собственный генератор, поэтому
+ * результат при том же seed не зависит от числа потоков.
+ */
+public final class GoalProjectionSimulator {
+
+    static final int LEAF_PATHS = 1024;
+
+    // Путь не достиг цели за горизонт моделирования
+    private static final int NOT_REACHED = 0;
+
+    private static final long SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    private final ForkJoinPool pool;
+
+    public GoalProjectionSimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param remaining     сколько осталось накопить, больше нуля
+     * @param contributions возможные месячные взносы; месяц пути берет один из них случайно
+     * @param paths         число путей
+     * @param horizonMonths горизонт моделирования в месяцах
+     * @param seed          начальное значение генератора
+     */
+    public Result simulate(double remaining, double[] contributions, int paths, int horizonMonths, long seed) {
+        if (remaining <= 0 || paths <= 0 || horizonMonths <= 0) {
+            throw new IllegalArgumentException("Остаток, число путей и горизонт должны быть положительными");
+        }
+        int[] completionMonths = new int[paths];
+        // Без положительных взносов цель недостижима, все пути остаются NOT_REACHED
+        if (hasPositive(contributions)) {
+            if (paths <= LEAF_PATHS) {
+                simulateRange(remaining, contributions, horizonMonths, seed, completionMonths, 0, paths);
+            } else {
+                pool.invoke(new SimulateTask(remaining, contributions, horizonMonths, seed, completionMonths, 0, paths));
+            }
+        }
+
+        int[] histogram = new int[horizonMonths + 1];
+        for (int month : completionMonths) {
+            histogram[month]++;
+        }
+        return new Result(histogram, paths);
+    }
+
+    private static void simulateRange(double remaining, double[] contributions, int horizonMonths, long seed,
+                                      int[] completionMonths, int from, int to) {
+        SplittableRandom random = new SplittableRandom(seed ^ (from * SEED_MIX));
+        int choices = contributions.length;
+        for (int path = from; path < to; path++) {
+            double saved = 0;
+            int completedAt = NOT_REACHED;
+            for (int month = 1; month <= horizonMonths; month++) {
+                saved += contributions[choices == 1 ? 0 : random.nextInt(choices)];
+                if (saved >= remaining) {
+                    completedAt = month;
+                    break;
+                }
+            }
+            completionMonths[path] = completedAt;
+        }
+    }
+
+    private static boolean hasPositive(double[] values) {
+        for (double value : values) {
+            if (value > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Распределение месяца достижения цели: {@code histogram[m]} - число путей,
+     * достигших цели в месяце {@code m}; нулевой элемент - пути, не достигшие цели.
+     */
+    public static final class Result {
+        private final int[] histogram;
+        private final int paths;
+
+        private Result(int[] histogram, int paths) {
+            this.histogram = histogram;
+            this.paths = paths;
+        }
+
+        public int getPaths() {
+            return paths;
+        }
+
+        /**
+         * Месяц, к которому цели достигла доля путей {@code quantile}, или -1, если такой доли
+         * за горизонт не набралось.
+         */
+        public int monthAtQuantile(double quantile) {
+            long required = (long) Math.ceil(quantile * paths);
+            long reached = 0;
+            for (int month = 1; month < histogram.length; month++) {
+                reached += histogram[month];
+                if (reached >= Math.max(required, 1)) {
+                    return month;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Доля путей, достигших цели не позже месяца {@code months}.
+         */
+        public double probabilityWithin(int months) {
+            long reached = 0;
+            for (int month = 1; month < histogram.length && month <= months; month++) {
+                reached += histogram[month];
+            }
+            return (double) reached / paths;
+        }
+    }
+
+    /**
+     * Делит диапазон путей пополам до размера листа; каждый лист пишет в свой участок массива.
+     */
+    private static final class SimulateTask extends RecursiveAction {
+        private final double remaining;
+        private final double[] contributions;
+        private final int horizonMonths;
+        private final long seed;
+        private final int[] completionMonths;
+        private final int from;
+        private final int to;
+
+        private SimulateTask(double remaining, double[] contributions, int horizonMonths, long seed,
+                             int[] completionMonths, int from, int to) {
+            this.remaining = remaining;
+            this.contributions = contributions;
+            this.horizonMonths = horizonMonths;
+            this.seed = seed;
+            this.completionMonths = completionMonths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_PATHS) {
+                simulateRange(remaining, contributions, horizonMonths, seed, completionMonths, from, to);
+                return;
+            }
+            // Граница кратна размеру листа: разбиение и генераторы листов не зависят от числа потоков
+            int middle = from + ((to - from) / LEAF_PATHS / 2) * LEAF_PATHS;
+            if (middle == from) {
+                middle += LEAF_PATHS;
+            }
+            invokeAll(
+                    new SimulateTask(remaining, contributions, horizonMonths, seed, completionMonths, from, middle),
+                    new SimulateTask(remaining, contributions, horizonMonths, seed, completionMonths, middle, to));
+        }
+    }
+}
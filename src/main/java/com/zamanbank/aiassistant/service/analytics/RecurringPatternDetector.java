@@ -0,0 +1,140 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import com.zamanbank.aiassistant.model.enums.RecurrencePeriod;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Поиск регулярных платежей за один проход: операции сортируются по
+ * (продавец, направление, сумма), при просмотре соседние суммы в пределах допуска
+ * собираются в группу, и для каждой группы проверяются интервалы между датами.
+ * Так подписка за 2 990 и подписка того же продавца за 9 990 распознаются отдельно,
+ * а небольшое изменение цены не разрывает ряд.
+ */
+public final class RecurringPatternDetector {
+
+    private static final Comparator<Occurrence> GROUP_ORDER = Comparator
+            .comparing(Occurrence::merchantKey)
+            .thenComparing(Occurrence::income)
+            .thenComparingLong(Occurrence::amount);
+
+    /**
+     * Доля интервалов, которые должны попасть в окно периода.
+     */
+    private static final double MIN_REGULAR_SHARE = 0.75;
+
+    private final double amountTolerance;
+
+    /**
+     * @param amountTolerance допустимое отклонение суммы от минимальной в группе, например 0.15
+     */
+    public RecurringPatternDetector(double amountTolerance) {
+        this.amountTolerance = amountTolerance;
+    }
+
+    public List<Recurrence> detect(List<Occurrence> occurrences) {
+        Occurrence[] sorted = occurrences.toArray(new Occurrence[0]);
+        Arrays.sort(sorted, GROUP_ORDER);
+
+        List<Recurrence> result = new ArrayList<>();
+        int start = 0;
+        while (start < sorted.length) {
+            Occurrence first = sorted[start];
+            long maxAmount = (long) Math.floor(first.amount() * (1 + amountTolerance));
+            int end = start + 1;
+            while (end < sorted.length
+                    && sorted[end].merchantKey().equals(first.merchantKey())
+                    && sorted[end].income() == first.income()
+                    && sorted[end].amount() <= maxAmount) {
+                end++;
+            }
+            Recurrence recurrence = detectInGroup(sorted, start, end);
+            if (recurrence != null) {
+                result.add(recurrence);
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    private Recurrence detectInGroup(Occurrence[] sorted, int start, int end) {
+        int size = end - start;
+        if (size < minOccurrences()) {
+            return null;
+        }
+
+        // Даты группы по возрастанию; несколько списаний в один день считаются одним
+        int[] days = new int[size];
+        for (int i = 0; i < size; i++) {
+            days[i] = sorted[start + i].epochDay();
+        }
+        Arrays.sort(days);
+        int distinct = 1;
+        for (int i = 1; i < size; i++) {
+            if (days[i] != days[distinct - 1]) {
+                days[distinct++] = days[i];
+            }
+        }
+
+        RecurrencePeriod period = matchPeriod(days, distinct);
+        if (period == null) {
+            return null;
+        }
+
+        // Группа уже отсортирована по сумме: медиана - средний элемент
+        Occurrence median = sorted[start + size / 2];
+        Occurrence latest = sorted[start];
+        for (int i = start + 1; i < end; i++) {
+            if (sorted[i].epochDay() > latest.epochDay()) {
+                latest = sorted[i];
+            }
+        }
+        return new Recurrence(median.merchantKey(), median.income(), period, median.amount(), distinct,
+                days[0], days[distinct - 1], latest.category());
+    }
+
+    private RecurrencePeriod matchPeriod(int[] days, int distinct) {
+        for (RecurrencePeriod period : RecurrencePeriod.values()) {
+            if (distinct < period.getMinOccurrences()) {
+                continue;
+            }
+            int regular = 0;
+            for (int i = 1; i < distinct; i++) {
+                int gap = days[i] - days[i - 1];
+                if (gap >= period.getMinGapDays() && gap <= period.getMaxGapDays()) {
+                    regular++;
+                }
+            }
+            if (regular >= MIN_REGULAR_SHARE * (distinct - 1)) {
+                return period;
+            }
+        }
+        return null;
+    }
+
+    private static int minOccurrences() {
+        int min = Integer.MAX_VALUE;
+        for (RecurrencePeriod period : RecurrencePeriod.values()) {
+            min = Math.min(min, period.getMinOccurrences());
+        }
+        return min;
+    }
+
+    /**
+     * Операция: ключ продавца, направление, сумма в тиынах, день (epoch day), категория.
+     */
+    public record Occurrence(String merchantKey, boolean income, long amount, int epochDay,
+                             TransactionCategory category) {
+    }
+
+    /**
+     * Найденный ряд: типичная (медианная) сумма в тиынах, число дат, первая и последняя дата.
+     */
+    public record Recurrence(String merchantKey, boolean income, RecurrencePeriod period, long typicalAmount,
+                             int occurrences, int firstDay, int lastDay, TransactionCategory category) {
+    }
+}
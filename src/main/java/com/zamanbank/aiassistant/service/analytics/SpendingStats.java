@@ -0,0 +1,130 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import com.zamanbank.aiassistant.model.enums.SpendingAnomalyType;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Скользящая статистика расходов пользователя: экспоненциально взвешенные среднее
+ * и дисперсия логарифма суммы по каждой категории и по всем расходам вместе.
+ * На ячейку приходится три числа, обновление и оценка операции выполняются за O(1)
+ * без обращения к истории. Экземпляр не потокобезопасен и живет в пределах одной пачки импорта.
+ */
+public final class SpendingStats {
+
+    private static final TransactionCategory[] CATEGORIES = TransactionColumns.CATEGORIES;
+
+    // Последняя ячейка - все расходы независимо от категории
+    private static final int TOTAL_SLOT = CATEGORIES.length;
+
+    // Нижняя граница дисперсии: у подписки с постоянной суммой иначе любое изменение дало бы огромный z
+    private static final double MIN_VARIANCE = 0.01;
+
+    // Для новой категории помечаются только траты выше типичной по всем расходам
+    private static final double UNUSUAL_CATEGORY_MIN_SCORE = 1.0;
+
+    private final double[] means = new double[TOTAL_SLOT + 1];
+    private final double[] variances = new double[TOTAL_SLOT + 1];
+    private final long[] counts = new long[TOTAL_SLOT + 1];
+    private final boolean[] changed = new boolean[TOTAL_SLOT + 1];
+
+    private final double alpha;
+    private final int minObservations;
+    private final double scoreThreshold;
+    private final int newCategoryMinHistory;
+
+    /**
+     * @param alpha                 вес новой операции в среднем и дисперсии
+     * @param minObservations       сколько операций категории нужно, чтобы оценивать суммы по ней
+     * @param scoreThreshold        порог отклонения в стандартных отклонениях
+     * @param newCategoryMinHistory сколько всего расходов нужно, чтобы новая категория считалась необычной
+     */
+    public SpendingStats(double alpha, int minObservations, double scoreThreshold, int newCategoryMinHistory) {
+        this.alpha = alpha;
+        this.minObservations = minObservations;
+        this.scoreThreshold = scoreThreshold;
+        this.newCategoryMinHistory = newCategoryMinHistory;
+    }
+
+    /**
+     * Восстанавливает сохраненную ячейку; {@code category == null} - все расходы.
+     */
+    public void load(TransactionCategory category, long observations, double mean, double variance) {
+        int slot = category != null ? category.ordinal() : TOTAL_SLOT;
+        counts[slot] = observations;
+        means[slot] = mean;
+        variances[slot] = variance;
+    }
+
+    /**
+     * Оценивает расход по накопленной статистике и затем учитывает его в ней.
+     */
+    public Assessment observe(TransactionCategory category, BigDecimal amount) {
+        double value = Math.log1p(amount.abs().doubleValue());
+        int slot = category != null ? category.ordinal() : -1;
+
+        Assessment assessment = Assessment.NORMAL;
+        if (slot >= 0 && counts[slot] >= minObservations) {
+            double score = score(slot, value);
+            if (score >= scoreThreshold) {
+                assessment = new Assessment(SpendingAnomalyType.UNUSUAL_AMOUNT, score);
+            }
+        } else if (slot >= 0 && counts[slot] == 0 && counts[TOTAL_SLOT] >= newCategoryMinHistory) {
+            double score = score(TOTAL_SLOT, value);
+            if (score >= UNUSUAL_CATEGORY_MIN_SCORE) {
+                assessment = new Assessment(SpendingAnomalyType.UNUSUAL_CATEGORY, score);
+            }
+        }
+
+        if (slot >= 0) {
+            update(slot, value);
+        }
+        update(TOTAL_SLOT, value);
+        return assessment;
+    }
+
+    /**
+     * Ячейки, измененные с момента загрузки.
+     */
+    public List<Slot> changedSlots() {
+        List<Slot> result = new ArrayList<>();
+        for (int slot = 0; slot <= TOTAL_SLOT; slot++) {
+            if (changed[slot]) {
+                result.add(new Slot(slot < TOTAL_SLOT ? CATEGORIES[slot] : null,
+                        counts[slot], means[slot], variances[slot]));
+            }
+        }
+        return result;
+    }
+
+    private double score(int slot, double value) {
+        return (value - means[slot]) / Math.sqrt(Math.max(variances[slot], MIN_VARIANCE));
+    }
+
+    private void update(int slot, double value) {
+        long count = ++counts[slot];
+        // Пока операций мало, вес растет как 1/n: первые значения дают обычное среднее
+        double weight = Math.max(alpha, 1.0 / count);
+        double diff = value - means[slot];
+        double increment = weight * diff;
+        means[slot] += increment;
+        variances[slot] = (1 - weight) * (variances[slot] + diff * increment);
+        changed[slot] = true;
+    }
+
+    /**
+     * Результат оценки: тип аномалии или {@code null}, отклонение в стандартных отклонениях.
+     */
+    public record Assessment(SpendingAnomalyType type, double score) {
+        static final Assessment NORMAL = new Assessment(null, 0);
+    }
+
+    /**
+     * Состояние ячейки для сохранения; {@code category == null} - все расходы.
+     */
+    public record Slot(TransactionCategory category, long observations, double mean, double variance) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zamanbank.aiassistant.model.Transaction;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Кэш колоночных представлений транзакций по пользователям для аналитики.
+ * Колонки пользователя загружаются одним потоковым запросом при первом обращении,
+ * вытесняются по суммарному объему и обновляются после коммита изменений транзакций:
+ * новые строки вливаются в копию колонок, изменение или удаление сбрасывает запись.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionColumnCache {
+
+    private static final String CACHE_NAME = "transaction-columns";
+
+    private final TransactionRepository transactionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.analytics.column-cache.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${app.analytics.column-cache.expire-after-access:PT30M}")
+    private Duration expireAfterAccess;
+
+    private Cache<Long, TransactionColumns> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, TransactionColumns columns) ->
+                        (int) Math.min(Integer.MAX_VALUE, columns.estimatedBytes()))
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public TransactionColumns get(User user) {
+        return cache.get(user.getId(), this::load);
+    }
+
+    /**
+     * Колонки пользователя, только если они уже загружены.
+     */
+    public TransactionColumns getIfPresent(User user) {
+        return cache.getIfPresent(user.getId());
+    }
+
+    /**
+     * Вызывается после коммита новых транзакций. Если колонки пользователя не загружены,
+     * ничего не делает: при следующем обращении они прочитаются из базы целиком.
+     */
+    public void onTransactionsAdded(Long userId, Collection<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        TransactionColumns.Builder added = TransactionColumns.builder(transactions.size());
+        for (Transaction transaction : transactions) {
+            added.add(transaction.getId(), transaction.getDate(), transaction.getAmount(),
+                    transaction.getType(), transaction.getCategory());
+        }
+        TransactionColumns addedColumns = added.build();
+        // Загрузка, начатая до коммита, завершится раньше слияния; уже прочитанные id не дублируются
+        cache.asMap().computeIfPresent(userId, (id, columns) -> columns.withAdded(addedColumns));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    private TransactionColumns load(Long userId) {
+        long started = System.nanoTime();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        TransactionColumns columns = template.execute(status -> {
+            TransactionColumns.Builder builder = TransactionColumns.builder(1024);
+            try (Stream<TransactionRepository.ColumnRowView> rows = transactionRepository.streamColumnRowsByUserId(userId)) {
+                rows.forEach(row -> builder.add(row.getId(), row.getDate(), row.getAmount(),
+                        row.getType(), row.getCategory()));
+            }
+            return builder.build();
+        });
+        log.debug("Загружены колонки транзакций пользователя {}: {} строк за {} мс",
+                userId, columns.size(), (System.nanoTime() - started) / 1_000_000);
+        return columns;
+    }
+}
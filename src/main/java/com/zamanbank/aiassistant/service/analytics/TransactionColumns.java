@@ -0,0 +1,276 @@
+package com.zamanbank.aiassistant.service.analytics;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Транзакции одного пользователя в колоночном виде: день (epoch day), сумма в тиынах,
+ * порядковые номера типа и категории. Строки отсортированы по (день, id), поэтому
+ * период находится двоичным поиском, а агрегаты считаются одним проходом по массивам
+ * без создания объектов. Экземпляр неизменяем; добавление строк создает новый.
+ */
+public final class TransactionColumns {
+
+    static final TransactionType[] TYPES = TransactionType.values();
+    static final TransactionCategory[] CATEGORIES = TransactionCategory.values();
+
+    /**
+     * Отсутствующий тип или категория.
+     */
+    public static final byte NONE = -1;
+
+    // Размер строки в байтах: id + день + сумма + тип + категория
+    private static final int ROW_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + 2;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final long[] ids;
+    private final int[] epochDays;
+    private final long[] amounts;
+    private final byte[] types;
+    private final byte[] categories;
+    private final int size;
+
+    private TransactionColumns(long[] ids, int[] epochDays, long[] amounts, byte[] types, byte[] categories,
+                               int size) {
+        this.ids = ids;
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.types = types;
+        this.categories = categories;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Приблизительный объем памяти, используется как вес в кэше.
+     */
+    public long estimatedBytes() {
+        return (long) size * ROW_BYTES + 5L * ARRAY_HEADER_BYTES;
+    }
+
+    /**
+     * Суммы и количества строк за период в разрезе тип × категория.
+     */
+    public Totals totalsByTypeAndCategory(LocalDate from, LocalDate to) {
+        Totals totals = new Totals();
+        int end = upperBound((int) to.toEpochDay());
+        for (int i = lowerBound((int) from.toEpochDay()); i < end; i++) {
+            int slot = Totals.slot(types[i], categories[i]);
+            totals.amounts[slot] += amounts[i];
+            totals.counts[slot]++;
+        }
+        return totals;
+    }
+
+    /**
+     * Сумма по каждому календарному месяцу периода для строк, тип которых отмечен в {@code typeMask}.
+     * Элемент 0 соответствует месяцу даты {@code from}.
+     */
+    public long[] monthlySums(LocalDate from, LocalDate to, boolean[] typeMask) {
+        LocalDate firstMonth = from.withDayOfMonth(1);
+        int months = (to.getYear() - firstMonth.getYear()) * 12 + to.getMonthValue() - firstMonth.getMonthValue() + 1;
+        long[] sums = new long[Math.max(months, 0)];
+        if (months <= 0) {
+            return sums;
+        }
+
+        int month = 0;
+        int nextMonthStart = (int) firstMonth.plusMonths(1).toEpochDay();
+        int end = upperBound((int) to.toEpochDay());
+        for (int i = lowerBound((int) from.toEpochDay()); i < end; i++) {
+            // Строки отсортированы по дню, граница месяца только сдвигается вперед
+            while (epochDays[i] >= nextMonthStart) {
+                month++;
+                nextMonthStart = (int) firstMonth.plusMonths(month + 1).toEpochDay();
+            }
+            byte type = types[i];
+            if (type != NONE && typeMask[type]) {
+                sums[month] += amounts[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Новый набор с добавленными строками; строки с уже известными id пропускаются.
+     */
+    public TransactionColumns withAdded(TransactionColumns added) {
+        Builder merged = new Builder(size + added.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < added.size) {
+            boolean takeExisting = j >= added.size
+                    || (i < size && compare(epochDays[i], ids[i], added.epochDays[j], added.ids[j]) <= 0);
+            if (takeExisting) {
+                merged.append(ids[i], epochDays[i], amounts[i], types[i], categories[i]);
+                i++;
+            } else {
+                if (!contains(added.epochDays[j], added.ids[j])) {
+                    merged.append(added.ids[j], added.epochDays[j], added.amounts[j], added.types[j], added.categories[j]);
+                }
+                j++;
+            }
+        }
+        return merged.build();
+    }
+
+    /**
+     * Сумма в тиынах: в колонках хранятся целые числа, а не BigDecimal.
+     */
+    public static long toTiyn(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+
+    public static BigDecimal fromTiyn(long amount) {
+        return BigDecimal.valueOf(amount, 2);
+    }
+
+    private boolean contains(int epochDay, long id) {
+        int end = upperBound(epochDay);
+        for (int i = lowerBound(epochDay); i < end; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Первая строка с днем >= epochDay
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Первая строка с днем > epochDay
+    private int upperBound(int epochDay) {
+        return epochDay == Integer.MAX_VALUE ? size : lowerBound(epochDay + 1);
+    }
+
+    static byte ordinal(Enum<?> value) {
+        return value != null ? (byte) value.ordinal() : NONE;
+    }
+
+    private static int compare(int leftDay, long leftId, int rightDay, long rightId) {
+        int byDay = Integer.compare(leftDay, rightDay);
+        return byDay != 0 ? byDay : Long.compare(leftId, rightId);
+    }
+
+    /**
+     * Агрегаты в разрезе тип × категория; отсутствующие тип и категория имеют собственные ячейки.
+     */
+    public static final class Totals {
+        private static final int CATEGORY_SLOTS = CATEGORIES.length + 1;
+
+        private final long[] amounts = new long[(TYPES.length + 1) * CATEGORY_SLOTS];
+        private final long[] counts = new long[amounts.length];
+
+        private static int slot(byte type, byte category) {
+            return (type + 1) * CATEGORY_SLOTS + category + 1;
+        }
+
+        public long amount(TransactionType type, TransactionCategory category) {
+            return amounts[slot(ordinal(type), ordinal(category))];
+        }
+
+        public long count(TransactionType type, TransactionCategory category) {
+            return counts[slot(ordinal(type), ordinal(category))];
+        }
+    }
+
+    /**
+     * Собирает колонки построчно. Строки могут идти в любом порядке, при сборке они сортируются.
+     */
+    public static final class Builder {
+        private long[] ids;
+        private int[] epochDays;
+        private long[] amounts;
+        private byte[] types;
+        private byte[] categories;
+        private int size;
+        private boolean sorted = true;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new long[capacity];
+            epochDays = new int[capacity];
+            amounts = new long[capacity];
+            types = new byte[capacity];
+            categories = new byte[capacity];
+        }
+
+        public Builder add(long id, LocalDate date, BigDecimal amount, TransactionType type,
+                           TransactionCategory category) {
+            return append(id, (int) date.toEpochDay(), toTiyn(amount), ordinal(type), ordinal(category));
+        }
+
+        private Builder append(long id, int epochDay, long amount, byte type, byte category) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                types = Arrays.copyOf(types, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+            }
+            if (size > 0 && compare(epochDays[size - 1], ids[size - 1], epochDay, id) > 0) {
+                sorted = false;
+            }
+            ids[size] = id;
+            epochDays[size] = epochDay;
+            amounts[size] = amount;
+            types[size] = type;
+            categories[size] = category;
+            size++;
+            return this;
+        }
+
+        public TransactionColumns build() {
+            if (sorted) {
+                return new TransactionColumns(Arrays.copyOf(ids, size), Arrays.copyOf(epochDays, size),
+                        Arrays.copyOf(amounts, size), Arrays.copyOf(types, size), Arrays.copyOf(categories, size),
+                        size);
+            }
+            // Перестановка строк по (день, id); несортированный ввод бывает только у небольших пачек
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> compare(epochDays[left], ids[left], epochDays[right], ids[right]));
+            long[] sortedIds = new long[size];
+            int[] sortedDays = new int[size];
+            long[] sortedAmounts = new long[size];
+            byte[] sortedTypes = new byte[size];
+            byte[] sortedCategories = new byte[size];
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                sortedIds[i] = ids[row];
+                sortedDays[i] = epochDays[row];
+                sortedAmounts[i] = amounts[row];
+                sortedTypes[i] = types[row];
+                sortedCategories[i] = categories[row];
+            }
+            return new TransactionColumns(sortedIds, sortedDays, sortedAmounts, sortedTypes, sortedCategories, size);
+        }
+    }
+}
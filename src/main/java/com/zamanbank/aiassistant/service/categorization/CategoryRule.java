@@ -0,0 +1,24 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+
+import java.util.List;
+
+/**
+ * Правило категоризации: ключевые слова из описания операции определяют категорию.
+ * Правило с типом поступления (INCOME, TRANSFER_IN, INTEREST) применяется только
+ * к поступлениям, с любым другим типом - только к списаниям, без типа - к любым операциям.
+ * При нескольких совпадениях побеждает правило с большим приоритетом, затем более длинное
+ * ключевое слово. Ключевое слово ищется целым словом; {@code *} на конце делает его основой,
+ * см. {@link KeywordCategorizer}.
+ */
+public record CategoryRule(TransactionCategory category,
+                           TransactionType type,
+                           int priority,
+                           List<String> keywords) {
+
+    public CategoryRule {
+        keywords = keywords != null ? List.copyOf(keywords) : List.of();
+    }
+}
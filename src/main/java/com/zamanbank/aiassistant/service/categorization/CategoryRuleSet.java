@@ -0,0 +1,13 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import java.util.List;
+
+/**
+ * Содержимое файла правил категоризации.
+ */
+public record CategoryRuleSet(List<CategoryRule> rules) {
+
+    public CategoryRuleSet {
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+}
@@ -0,0 +1,9 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикуется после атомарной замены глобальных правил категоризации.
+ */
+public record CategoryRulesReloadedEvent(LocalDateTime loadedAt) {
+}
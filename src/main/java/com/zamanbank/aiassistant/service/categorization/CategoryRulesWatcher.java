@@ -0,0 +1,133 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.service.TransactionCategoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+
+/**
+ * Следит за файлом правил категоризации и перезагружает их после изменения.
+ * Работает только для правил из файловой системы ({@code file:...}); правила
+ * из classpath меняются только вместе со сборкой.
+ */
+@Component
+@ConditionalOnProperty(name = "app.categorization.rules-watch.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryRulesWatcher {
+
+    private final TransactionCategoryService categoryService;
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * Редакторы часто сохраняют файл в несколько приемов, поэтому события
+     * за этот интервал сводятся в одну перезагрузку.
+     */
+    @Value("${app.categorization.rules-watch.debounce:PT1S}")
+    private Duration debounce;
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Path rulesFile = resolveRulesFile();
+        if (rulesFile == null) {
+            log.warn("Правила категоризации {} находятся не в файловой системе, слежение отключено",
+                    categoryService.getRulesLocation());
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        // Следим за каталогом: при атомарной замене файла (rename) наблюдение за самим файлом теряется
+        rulesFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watcherThread = new Thread(() -> watch(rulesFile), "category-rules-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Включено слежение за файлом правил категоризации {}", rulesFile);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    private void watch(Path rulesFile) {
+        Path fileName = rulesFile.getFileName();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = containsFile(key, fileName);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                Thread.sleep(debounce.toMillis());
+                // Отбрасываем события, накопившиеся за время ожидания
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+
+                try {
+                    categoryService.reloadRules();
+                } catch (RuntimeException e) {
+                    // Прежние правила продолжают действовать, ждем следующего исправления файла
+                    log.warn("Измененный файл правил {} не применен: {}", rulesFile, e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Слежение за файлом правил категоризации остановлено");
+        }
+    }
+
+    private boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    private Path resolveRulesFile() {
+        Resource resource = resourceLoader.getResource(categoryService.getRulesLocation());
+        if (!resource.isFile()) {
+            return null;
+        }
+        try {
+            return resource.getFile().toPath().toAbsolutePath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
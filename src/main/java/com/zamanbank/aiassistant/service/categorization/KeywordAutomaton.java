@@ -0,0 +1,185 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Автомат Ахо–Корасик для поиска набора ключевых слов за один проход по тексту.
+ * Регистр не учитывается, «ё» приравнивается к «е». После построения автомат неизменяем
+ * и может использоваться из нескольких потоков.
+ */
+public final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    // Переходы состояния s: edgeChars/edgeTargets в диапазоне [edgeStart[s], edgeStart[s + 1]), символы отсортированы
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // Индексы ключевых слов, оканчивающихся в состоянии, включая найденные по ссылкам неудач
+    private final int[][] outputs;
+
+    private KeywordAutomaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail, int[][] outputs) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Строит автомат. Индекс ключевого слова в списке передается в обработчик при совпадении.
+     * Пустые ключевые слова игнорируются.
+     */
+    public static KeywordAutomaton build(List<String> keywords) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<int[]> terminal = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminal.add(NO_OUTPUT);
+
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = normalize(keyword.charAt(i));
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new HashMap<>());
+                    terminal.add(NO_OUTPUT);
+                }
+                state = next;
+            }
+            terminal.set(state, append(terminal.get(state), k));
+        }
+
+        int states = children.size();
+        int[] edgeStart = new int[states + 1];
+        int edges = 0;
+        for (int s = 0; s < states; s++) {
+            edgeStart[s] = edges;
+            edges += children.get(s).size();
+        }
+        edgeStart[states] = edges;
+
+        char[] edgeChars = new char[edges];
+        int[] edgeTargets = new int[edges];
+        for (int s = 0; s < states; s++) {
+            Character[] symbols = children.get(s).keySet().toArray(new Character[0]);
+            Arrays.sort(symbols);
+            for (int i = 0; i < symbols.length; i++) {
+                edgeChars[edgeStart[s] + i] = symbols[i];
+                edgeTargets[edgeStart[s] + i] = children.get(s).get(symbols[i]);
+            }
+        }
+
+        // Ссылки неудач строятся обходом в ширину: к моменту обработки состояния
+        // выходы его ссылки неудачи уже объединены
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[ROOT] = terminal.get(ROOT);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT + 1]; e++) {
+            int child = edgeTargets[e];
+            fail[child] = ROOT;
+            outputs[child] = terminal.get(child);
+            queue.add(child);
+        }
+        KeywordAutomaton partial = new KeywordAutomaton(edgeStart, edgeChars, edgeTargets, fail, outputs);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                char c = edgeChars[e];
+                int child = edgeTargets[e];
+                int fallback = fail[state];
+                int target;
+                while ((target = partial.transition(fallback, c)) < 0 && fallback != ROOT) {
+                    fallback = fail[fallback];
+                }
+                fail[child] = target >= 0 ? target : ROOT;
+                outputs[child] = merge(terminal.get(child), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Передает в обработчик индекс каждого ключевого слова при каждом его вхождении в текст
+     * и позицию сразу за последним символом вхождения.
+     */
+    public void match(CharSequence text, MatchHandler onKeyword) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalize(text.charAt(i));
+            int next;
+            while ((next = transition(state, c)) < 0 && state != ROOT) {
+                state = fail[state];
+            }
+            state = next >= 0 ? next : ROOT;
+            for (int keyword : outputs[state]) {
+                onKeyword.onMatch(keyword, i + 1);
+            }
+        }
+    }
+
+    public int getStateCount() {
+        return fail.length;
+    }
+
+    private int transition(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char symbol = edgeChars[mid];
+            if (symbol < c) {
+                low = mid + 1;
+            } else if (symbol > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    @FunctionalInterface
+    public interface MatchHandler {
+        void onMatch(int keyword, int end);
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited.length == 0) {
+            return own;
+        }
+        if (own.length == 0) {
+            return inherited;
+        }
+        int[] result = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, result, own.length, inherited.length);
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Набор правил, скомпилированный в один {@link KeywordAutomaton}. Описание операции
+ * просматривается один раз, из всех совпавших правил выбирается лучшее.
+ * <p>
+ * Ключевое слово совпадает только целым словом: символы до и после вхождения не должны
+ * быть буквой или цифрой, иначе «atm» нашлось бы в «treatment», а «temu» - в «Temur».
+ * Слово с {@code *} на конце задает основу: после нее допускаются любые символы
+ * («медицин*» совпадает с «медицинский»).
+ */
+public final class KeywordCategorizer {
+
+    private static final char STEM_MARKER = '*';
+
+    private final KeywordAutomaton automaton;
+    private final CategoryRule[] keywordRules;
+    private final int[] keywordLengths;
+    private final boolean[] stemKeywords;
+    private final int ruleCount;
+
+    public KeywordCategorizer(List<CategoryRule> rules) {
+        List<String> keywords = new ArrayList<>();
+        List<Boolean> stems = new ArrayList<>();
+        List<CategoryRule> owners = new ArrayList<>();
+        for (CategoryRule rule : rules) {
+            if (rule.category() == null) {
+                throw new IllegalArgumentException("У правила категоризации не указана категория");
+            }
+            for (String keyword : rule.keywords()) {
+                String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+                boolean stem = normalized.endsWith(String.valueOf(STEM_MARKER));
+                if (stem) {
+                    normalized = normalized.substring(0, normalized.length() - 1).trim();
+                }
+                if (!normalized.isEmpty()) {
+                    keywords.add(normalized);
+                    stems.add(stem);
+                    owners.add(rule);
+                }
+            }
+        }
+
+        this.automaton = KeywordAutomaton.build(keywords);
+        this.keywordRules = owners.toArray(new CategoryRule[0]);
+        this.keywordLengths = keywords.stream().mapToInt(String::length).toArray();
+        this.stemKeywords = new boolean[stems.size()];
+        for (int i = 0; i < stemKeywords.length; i++) {
+            stemKeywords[i] = stems.get(i);
+        }
+        this.ruleCount = rules.size();
+    }
+
+    /**
+     * Категория лучшего совпавшего правила или null, если ни одно правило не подошло.
+     */
+    public TransactionCategory categorize(CharSequence description, TransactionType type) {
+        if (description == null || description.isEmpty()) {
+            return null;
+        }
+        boolean income = isIncome(type);
+        BestMatch best = new BestMatch();
+        automaton.match(description, (keyword, end) -> {
+            if (!isWholeWord(description, end - keywordLengths[keyword], end, stemKeywords[keyword])) {
+                return;
+            }
+            CategoryRule rule = keywordRules[keyword];
+            if (rule.type() != null && type != null && isIncome(rule.type()) != income) {
+                return;
+            }
+            if (best.rule == null
+                    || rule.priority() > best.rule.priority()
+                    || (rule.priority() == best.rule.priority() && keywordLengths[keyword] > best.keywordLength)) {
+                best.rule = rule;
+                best.keywordLength = keywordLengths[keyword];
+            }
+        });
+        return best.rule != null ? best.rule.category() : null;
+    }
+
+    private static boolean isWholeWord(CharSequence text, int start, int end, boolean stem) {
+        if (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) {
+            return false;
+        }
+        return stem || end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public int getKeywordCount() {
+        return keywordRules.length;
+    }
+
+    public static boolean isIncome(TransactionType type) {
+        return type == TransactionType.INCOME
+                || type == TransactionType.TRANSFER_IN
+                || type == TransactionType.INTEREST;
+    }
+
+    private static final class BestMatch {
+        private CategoryRule rule;
+        private int keywordLength;
+    }
+}
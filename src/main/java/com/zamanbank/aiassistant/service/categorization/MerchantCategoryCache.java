@@ -0,0 +1,121 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import com.zamanbank.aiassistant.service.TransactionCategoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Кэш «описание без номеров и дат → категория» перед {@link TransactionCategoryService}.
+ * Описания одного продавца повторяются у всех пользователей, поэтому для большинства строк
+ * категоризация сводится к поиску в хэш-таблице. Правила применяются к самому ключу
+ * ({@link MerchantNormalizer#categoryKey(String)}), так что значение не зависит от того,
+ * какое из описаний с этим ключом пришло первым. Вытеснение W-TinyLFU (Caffeine),
+ * размер ограничен, статистика попаданий публикуется в Micrometer.
+ * <p>
+ * Кэшируется только результат правил: ответ классификатора меняется по мере обучения,
+ * поэтому для строк без совпавшего правила он запрашивается каждый раз.
+ * Значение помечено набором правил, по которому оно вычислено: запись от прежнего набора
+ * пересчитывается при чтении, даже если попала в кэш уже после очистки.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantCategoryCache {
+
+    private static final String CACHE_NAME = "merchant-category";
+
+    private final TransactionCategoryService categoryService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.categorization.merchant-cache.max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, CachedCategory> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public TransactionCategory categorize(String description, TransactionType type) {
+        String categoryKey = MerchantNormalizer.categoryKey(description);
+        if (categoryKey.isEmpty()) {
+            return categoryService.categorizeTransaction(description, type);
+        }
+        // Правила различаются для поступлений и списаний, поэтому направление входит в ключ
+        TransactionType direction = direction(type);
+        String key = (direction == null ? "?" : direction == TransactionType.INCOME ? "+" : "-") + categoryKey;
+        TransactionCategoryService.RulesSnapshot rules = categoryService.getRulesSnapshot();
+        CachedCategory cached = cache.get(key, ignored -> CachedCategory.compute(rules, categoryKey, direction));
+        if (cached.isOlderThan(rules)) {
+            // Загрузка по прежним правилам завершилась после их замены
+            CachedCategory fresh = CachedCategory.compute(rules, categoryKey, direction);
+            cached = cache.asMap().merge(key, fresh,
+                    (existing, computed) -> existing.isOlderThan(computed.rules()) ? computed : existing);
+        }
+        Optional<TransactionCategory> ruleCategory = cached.category();
+        return ruleCategory.isPresent() ? ruleCategory.get() : categoryService.fallbackCategory(description, type);
+    }
+
+    /**
+     * Правила смотрят только на направление операции, поэтому значение в кэше считается
+     * для INCOME или EXPENSE; без типа применяются все правила.
+     */
+    private static TransactionType direction(TransactionType type) {
+        if (type == null) {
+            return null;
+        }
+        return KeywordCategorizer.isIncome(type) ? TransactionType.INCOME : TransactionType.EXPENSE;
+    }
+
+    /**
+     * Сбрасывает кэш, например после изменения правил категоризации.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.info("Кэш категорий продавцов очищен");
+    }
+
+    /**
+     * Значения, вычисленные по прежним правилам, больше не действительны. Очистка не ждет
+     * загрузок, начатых до замены правил, и их результат может остаться в кэше; такие записи
+     * помечены прежним набором правил и пересчитываются при следующем чтении.
+     */
+    @EventListener
+    public void onRulesReloaded(CategoryRulesReloadedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Категория по правилам (пусто, если правило не подошло) и набор правил, по которому она получена.
+     */
+    private record CachedCategory(TransactionCategoryService.RulesSnapshot rules,
+                                  Optional<TransactionCategory> category) {
+
+        static CachedCategory compute(TransactionCategoryService.RulesSnapshot rules, String categoryKey,
+                                      TransactionType direction) {
+            TransactionCategory category = rules.categorizer().categorize(categoryKey, direction);
+            return new CachedCategory(rules, Optional.ofNullable(category));
+        }
+
+        boolean isOlderThan(TransactionCategoryService.RulesSnapshot current) {
+            return rules.generation() < current.generation();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Приводит описание операции к ключу продавца: убирает номера терминалов и карт,
+ * даты, время и названия городов, оставляя слова, по которым работает категоризация.
+ * «MAGNUM CASH&CARRY ALMATY 12345» и «Magnum Cash&Carry Астана 0042» дают один ключ.
+ * <p>
+ * Для кэша категорий есть {@link #categoryKey(String)}: он сохраняет города, потому что
+ * они встречаются в ключевых словах правил («air astana»).
+ */
+public final class MerchantNormalizer {
+
+    private static final Set<String> LOCATION_TOKENS = Set.of(
+            "ALMATY", "ALMATA", "ASTANA", "NUR-SULTAN", "SHYMKENT", "KARAGANDA", "KARAGANDY",
+            "AKTOBE", "AKTAU", "ATYRAU", "PAVLODAR", "KOSTANAY", "SEMEY", "TARAZ", "TURKESTAN",
+            "KZ", "KAZ", "KAZAKHSTAN",
+            "АЛМАТЫ", "АСТАНА", "ШЫМКЕНТ", "КАРАГАНДА", "АКТОБЕ", "АКТАУ", "АТЫРАУ",
+            "ПАВЛОДАР", "КОСТАНАЙ", "СЕМЕЙ", "ТАРАЗ", "ТУРКЕСТАН", "КАЗАХСТАН", "РК");
+
+    private MerchantNormalizer() {
+    }
+
+    /**
+     * Ключ продавца в верхнем регистре или пустая строка, если значимых слов не осталось.
+     * Ключ не обрезается, чтобы длинные описания с общим началом не сливались.
+     */
+    public static String merchantKey(String description) {
+        return normalize(description, true);
+    }
+
+    /**
+     * Описание без номеров, дат и сумм в верхнем регистре; города остаются. Категория
+     * по правилам вычисляется из самого ключа, поэтому одинаковые ключи всегда дают
+     * одну категорию независимо от того, какое описание встретилось первым.
+     */
+    public static String categoryKey(String description) {
+        return normalize(description, false);
+    }
+
+    private static String normalize(String description, boolean dropLocations) {
+        if (description == null || description.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder key = new StringBuilder(description.length());
+        int length = description.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSeparator(description.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            int digits = 0;
+            int letters = 0;
+            while (i < length && !isSeparator(description.charAt(i))) {
+                char c = description.charAt(i);
+                if (Character.isDigit(c)) {
+                    digits++;
+                } else if (Character.isLetter(c)) {
+                    letters++;
+                }
+                i++;
+            }
+            if (i == start || letters == 0 || digits * 2 >= letters + digits) {
+                // Пустой токен, номер, дата, время, сумма или маска карты
+                continue;
+            }
+
+            String token = trimPunctuation(description, start, i).toUpperCase(Locale.ROOT).replace('Ё', 'Е');
+            if (token.isEmpty() || (dropLocations && LOCATION_TOKENS.contains(token))) {
+                continue;
+            }
+            if (key.length() > 0) {
+                key.append(' ');
+            }
+            key.append(token);
+        }
+
+        return key.toString();
+    }
+
+    private static String trimPunctuation(String text, int start, int end) {
+        while (start < end && !Character.isLetterOrDigit(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetterOrDigit(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == '\u00A0' || c == ',' || c == ';' || c == '|';
+    }
+}
@@ -0,0 +1,153 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+
+/**
+ * Неизменяемая модель мультиномиального наивного Байеса над хэшированными
+ * символьными 3- и 4-граммами описания. Логарифмы правдоподобий хранятся в одном
+ * массиве {@code [признак * число категорий + категория]}, поэтому все веса одного
+ * признака лежат рядом. Классификация не выделяет память: буферы берутся из ThreadLocal.
+ */
+public final class NaiveBayesModel {
+
+    static final TransactionCategory[] CATEGORIES = TransactionCategory.values();
+
+    /**
+     * Длинные описания обрезаются: хвост обычно содержит номер карты или терминала.
+     */
+    static final int MAX_TEXT_LENGTH = 256;
+
+    static final int MAX_FEATURES = 2 * (MAX_TEXT_LENGTH + 2);
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final int featureMask;
+    private final float[] logLikelihoods;
+    private final float[] incomeLogPriors;
+    private final float[] expenseLogPriors;
+    private final long incomeDocuments;
+    private final long expenseDocuments;
+
+    NaiveBayesModel(int featureBits, float[] logLikelihoods, float[] incomeLogPriors,
+                    float[] expenseLogPriors, long incomeDocuments, long expenseDocuments) {
+        this.featureMask = (1 << featureBits) - 1;
+        this.logLikelihoods = logLikelihoods;
+        this.incomeLogPriors = incomeLogPriors;
+        this.expenseLogPriors = expenseLogPriors;
+        this.incomeDocuments = incomeDocuments;
+        this.expenseDocuments = expenseDocuments;
+    }
+
+    /**
+     * Число описаний поступлений или списаний, на которых обучена модель.
+     */
+    public long getDocuments(boolean income) {
+        return income ? incomeDocuments : expenseDocuments;
+    }
+
+    /**
+     * Наиболее вероятная категория среди встречавшихся в обучении для этого направления
+     * операции или {@code null}, если апостериорная вероятность ниже {@code minConfidence}.
+     * Пока для направления подтверждена только одна категория, выбирать не из чего
+     * и ответ тоже {@code null}.
+     */
+    public TransactionCategory classify(CharSequence description, boolean income, double minConfidence) {
+        if (description == null) {
+            return null;
+        }
+        float[] priors = income ? incomeLogPriors : expenseLogPriors;
+        Scratch scratch = SCRATCH.get();
+        int featureCount = extractFeatures(description, featureMask, scratch.features);
+        if (featureCount == 0) {
+            return null;
+        }
+
+        int classes = CATEGORIES.length;
+        float[] scores = scratch.scores;
+        System.arraycopy(priors, 0, scores, 0, classes);
+        for (int i = 0; i < featureCount; i++) {
+            int base = scratch.features[i] * classes;
+            for (int c = 0; c < classes; c++) {
+                scores[c] += logLikelihoods[base + c];
+            }
+        }
+
+        int best = -1;
+        int candidates = 0;
+        for (int c = 0; c < classes; c++) {
+            if (priors[c] != Float.NEGATIVE_INFINITY) {
+                candidates++;
+                if (best < 0 || scores[c] > scores[best]) {
+                    best = c;
+                }
+            }
+        }
+        if (candidates < 2) {
+            return null;
+        }
+
+        // Вероятность лучшей категории: 1 / sum(exp(score_c - score_best))
+        double normalizer = 0;
+        for (int c = 0; c < classes; c++) {
+            if (priors[c] != Float.NEGATIVE_INFINITY) {
+                normalizer += Math.exp(scores[c] - scores[best]);
+            }
+        }
+        return 1.0 / normalizer >= minConfidence ? CATEGORIES[best] : null;
+    }
+
+    /**
+     * Записывает в {@code features} индексы хэшированных 3- и 4-грамм описания.
+     * Буквы приводятся к нижнему регистру (ё → е), все цифры заменяются нулем,
+     * остальные символы и их последовательности - одним пробелом; текст обрамляется пробелами.
+     *
+     * @return число записанных признаков
+     */
+    static int extractFeatures(CharSequence text, int featureMask, int[] features) {
+        int count = 0;
+        int length = Math.min(text.length(), MAX_TEXT_LENGTH);
+        // Три предыдущих символа и сколько символов уже прочитано
+        int c1 = ' ';
+        int c2 = 0;
+        int c3 = 0;
+        int seen = 1;
+        for (int i = 0; i <= length; i++) {
+            int c = i < length ? featureChar(text.charAt(i)) : ' ';
+            if (c == ' ' && c1 == ' ') {
+                continue;
+            }
+            seen++;
+            if (seen >= 3) {
+                features[count++] = hash(3, c2, c1, c, 0) & featureMask;
+            }
+            if (seen >= 4) {
+                features[count++] = hash(4, c3, c2, c1, c) & featureMask;
+            }
+            c3 = c2;
+            c2 = c1;
+            c1 = c;
+        }
+        return count;
+    }
+
+    private static int featureChar(char c) {
+        if (Character.isLetter(c)) {
+            return KeywordAutomaton.normalize(c);
+        }
+        return Character.isDigit(c) ? '0' : ' ';
+    }
+
+    private static int hash(int n, int a, int b, int c, int d) {
+        int h = n * 0x9E3779B9;
+        h = (h ^ a) * 0x01000193;
+        h = (h ^ b) * 0x01000193;
+        h = (h ^ c) * 0x01000193;
+        h = (h ^ d) * 0x01000193;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Scratch {
+        private final int[] features = new int[MAX_FEATURES];
+        private final float[] scores = new float[CATEGORIES.length];
+    }
+}
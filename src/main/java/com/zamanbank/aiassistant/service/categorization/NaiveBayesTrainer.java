@@ -0,0 +1,110 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+
+/**
+ * Накопитель счетчиков для {@link NaiveBayesModel}. Обучение инкрементальное:
+ * подтвержденное описание добавляет свои n-граммы к счетчикам категории, исправление
+ * вычитает их из прежней. Не потокобезопасен, изменяется из одного потока.
+ */
+public final class NaiveBayesTrainer {
+
+    private final int featureBits;
+    private final int featureMask;
+    private final float[] featureCounts;
+    private final double[] categoryFeatureTotals;
+    private final long[] incomeDocuments;
+    private final long[] expenseDocuments;
+    private final int[] featureBuffer = new int[NaiveBayesModel.MAX_FEATURES];
+    private long documents;
+
+    public NaiveBayesTrainer(int featureBits) {
+        if (featureBits < 8 || featureBits > 24) {
+            throw new IllegalArgumentException("Размер пространства признаков должен быть от 2^8 до 2^24");
+        }
+        int classes = NaiveBayesModel.CATEGORIES.length;
+        this.featureBits = featureBits;
+        this.featureMask = (1 << featureBits) - 1;
+        this.featureCounts = new float[(1 << featureBits) * classes];
+        this.categoryFeatureTotals = new double[classes];
+        this.incomeDocuments = new long[classes];
+        this.expenseDocuments = new long[classes];
+    }
+
+    public void add(String description, TransactionType type, TransactionCategory category) {
+        update(description, type, category, 1);
+    }
+
+    public void remove(String description, TransactionType type, TransactionCategory category) {
+        update(description, type, category, -1);
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Собирает новую модель со сглаживанием Лапласа {@code alpha}. Счетчики не меняются,
+     * после сборки обучение можно продолжать.
+     */
+    public NaiveBayesModel build(double alpha) {
+        int classes = NaiveBayesModel.CATEGORIES.length;
+        int features = 1 << featureBits;
+
+        double[] logDenominators = new double[classes];
+        for (int c = 0; c < classes; c++) {
+            logDenominators[c] = Math.log(categoryFeatureTotals[c] + alpha * features);
+        }
+        float[] logLikelihoods = new float[featureCounts.length];
+        for (int i = 0; i < featureCounts.length; i++) {
+            logLikelihoods[i] = (float) (Math.log(featureCounts[i] + alpha) - logDenominators[i % classes]);
+        }
+
+        return new NaiveBayesModel(featureBits, logLikelihoods,
+                logPriors(incomeDocuments), logPriors(expenseDocuments),
+                sum(incomeDocuments), sum(expenseDocuments));
+    }
+
+    private void update(String description, TransactionType type, TransactionCategory category, int delta) {
+        if (description == null || category == null) {
+            return;
+        }
+        int classes = NaiveBayesModel.CATEGORIES.length;
+        int c = category.ordinal();
+        int featureCount = NaiveBayesModel.extractFeatures(description, featureMask, featureBuffer);
+        for (int i = 0; i < featureCount; i++) {
+            int index = featureBuffer[i] * classes + c;
+            // Повторное вычитание не должно уводить счетчик в минус
+            featureCounts[index] = Math.max(0f, featureCounts[index] + delta);
+        }
+        categoryFeatureTotals[c] = Math.max(0d, categoryFeatureTotals[c] + delta * featureCount);
+
+        long[] directionDocuments = KeywordCategorizer.isIncome(type) ? incomeDocuments : expenseDocuments;
+        directionDocuments[c] = Math.max(0L, directionDocuments[c] + delta);
+        documents = Math.max(0L, documents + delta);
+    }
+
+    /**
+     * Априорные вероятности категорий внутри одного направления операции. Категории,
+     * ни разу не подтвержденные для этого направления, исключаются из выбора.
+     */
+    private static float[] logPriors(long[] categoryDocuments) {
+        long total = sum(categoryDocuments);
+        float[] priors = new float[categoryDocuments.length];
+        for (int c = 0; c < categoryDocuments.length; c++) {
+            priors[c] = categoryDocuments[c] > 0
+                    ? (float) Math.log((double) categoryDocuments[c] / total)
+                    : Float.NEGATIVE_INFINITY;
+        }
+        return priors;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
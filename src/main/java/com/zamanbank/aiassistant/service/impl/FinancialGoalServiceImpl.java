@@ -7,11 +7,17 @@ import com.zamanbank.aiassistant.repository.FinancialGoalRepository;
 import com.zamanbank.aiassistant.service.FinancialGoalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +26,13 @@ import java.util.List;
 public class FinancialGoalServiceImpl implements FinancialGoalService {
     
     private final FinancialGoalRepository goalRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.goals.contribution.atomic-update:true}")
+    private boolean atomicUpdate;
+    
+    @Value("${app.goals.contribution.max-retries:10}")
+    private int maxRetries;
     
     @Override
     public FinancialGoal createGoal(FinancialGoal goal) {
@@ -88,32 +101,83 @@ public class FinancialGoalServiceImpl implements FinancialGoalService {
         return goalRepository.findByUserAndStatus(user, status);
     }
     
+    /**
+     * Пополнение выполняется одной командой UPDATE без чтения суммы в приложении, поэтому
+     * параллельные пополнения не теряются и не ждут друг друга дольше самой команды.
+     * При {@code app.goals.contribution.atomic-update=false} используется прежнее
+     * чтение-изменение-запись с проверкой версии и повтором при конфликте.
+     * Каждая попытка выполняется в своей транзакции.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public FinancialGoal contributeToGoal(Long goalId, BigDecimal amount, User user) {
-        FinancialGoal goal = getGoalById(goalId, user);
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Сумма должна быть больше нуля");
+        }
         
-        if (goal.getStatus() != GoalStatus.IN_PROGRESS) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        FinancialGoal updatedGoal = atomicUpdate
+                ? template.execute(status -> contributeAtomically(goalId, amount, user))
+                : contributeWithRetry(template, goalId, amount, user);
+        
+        if (updatedGoal.getStatus() == GoalStatus.COMPLETED) {
+            log.info("Цель достигнута: {}", updatedGoal.getTitle());
+        }
+        log.info("Внесено {} в цель: {}", amount, updatedGoal.getTitle());
+        return updatedGoal;
+    }
+    
+    private FinancialGoal contributeAtomically(Long goalId, BigDecimal amount, User user) {
+        int updated = goalRepository.addContribution(goalId, user.getId(), amount);
+        // Контекст очищен после UPDATE, цель читается заново вместе с проверкой доступа
+        FinancialGoal goal = getGoalById(goalId, user);
+        if (updated == 0) {
             throw new RuntimeException("Нельзя вносить средства в неактивную цель");
         }
+        return goal;
+    }
+    
+    private FinancialGoal contributeWithRetry(TransactionTemplate template, Long goalId, BigDecimal amount, User user) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return template.execute(status -> contributeOptimistically(goalId, amount, user));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= maxRetries) {
+                    throw new RuntimeException("Не удалось внести средства: цель одновременно изменяется", e);
+                }
+                log.debug("Конфликт версий при пополнении цели {}, попытка {}", goalId, attempt);
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private FinancialGoal contributeOptimistically(Long goalId, BigDecimal amount, User user) {
+        FinancialGoal goal = getGoalById(goalId, user);
         
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Сумма должна быть больше нуля");
+        if (goal.getStatus() != GoalStatus.IN_PROGRESS) {
+            throw new RuntimeException("Нельзя вносить средства в неактивную цель");
         }
         
-        // Обновляем текущую сумму
         BigDecimal newCurrentAmount = goal.getCurrentAmount().add(amount);
-        goal.setCurrentAmount(newCurrentAmount);
-        
-        // Проверяем, достигнута ли цель
         if (newCurrentAmount.compareTo(goal.getTargetAmount()) >= 0) {
             goal.setStatus(GoalStatus.COMPLETED);
-            goal.setCurrentAmount(goal.getTargetAmount()); // Устанавливаем точную целевую сумму
-            log.info("Цель достигнута: {}", goal.getTitle());
+            newCurrentAmount = goal.getTargetAmount(); // Устанавливаем точную целевую сумму
         }
+        goal.setCurrentAmount(newCurrentAmount);
         
-        FinancialGoal updatedGoal = goalRepository.save(goal);
-        log.info("Внесено {} в цель: {}", amount, goal.getTitle());
-        return updatedGoal;
+        // Конфликт версий обнаруживается здесь, а не при коммите, и попадает в повтор
+        return goalRepository.saveAndFlush(goal);
+    }
+    
+    private static void backOff(int attempt) {
+        // Случайная пауза разводит повторы конкурирующих пополнений
+        long maxDelay = Math.min(50L, 5L * attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Пополнение цели прервано", e);
+        }
     }
     
     @Override
@@ -6,8 +6,12 @@ import com.zamanbank.aiassistant.dto.UserResponse;
 import com.zamanbank.aiassistant.dto.UserUpdateRequest;
 import com.zamanbank.aiassistant.mapper.UserMapper;
 import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.GoalStatus;
 import com.zamanbank.aiassistant.model.enums.UserRole;
 import com.zamanbank.aiassistant.model.enums.UserStatus;
+import com.zamanbank.aiassistant.repository.ConversationRepository;
+import com.zamanbank.aiassistant.repository.FinancialGoalRepository;
+import com.zamanbank.aiassistant.repository.TransactionRepository;
 import com.zamanbank.aiassistant.repository.UserRepository;
 import com.zamanbank.aiassistant.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +34,9 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final FinancialGoalRepository goalRepository;
+    private final ConversationRepository conversationRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     
@@ -51,14 +58,13 @@ public class UserServiceImpl implements UserService {
         User user = getCurrentUser(authentication);
         UserProfileResponse profile = userMapper.toProfileResponse(user);
         
-        // Получаем статистику пользователя
+        // Получаем статистику пользователя: только COUNT-запросы, без загрузки сущностей
         try {
-            // Здесь можно добавить реальную статистику из базы данных
-            // Пока что используем заглушки, но в будущем можно добавить:
-            // - profile.setTotalGoals(goalRepository.countByUser(user));
-            // - profile.setActiveGoals(goalRepository.countByUserAndStatus(user, GoalStatus.ACTIVE));
-            // - profile.setTotalTransactions(transactionRepository.countByUser(user));
-            // - profile.setTotalConversations(conversationRepository.countByUser(user));
+            profile.setTotalGoals((int) goalRepository.countByUser(user));
+            profile.setActiveGoals((int) goalRepository.countByUserAndStatus(user, GoalStatus.IN_PROGRESS));
+            profile.setCompletedGoals((int) goalRepository.countByUserAndStatus(user, GoalStatus.COMPLETED));
+            profile.setTotalTransactions((int) transactionRepository.countByUser(user));
+            profile.setTotalConversations((int) conversationRepository.countByUser(user));
             
             log.info("Получен полный профиль пользователя: {} с ID: {}", user.getEmail(), user.getId());
         } catch (Exception e) {
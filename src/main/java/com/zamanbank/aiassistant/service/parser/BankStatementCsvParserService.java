@@ -0,0 +1,279 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankStatement;
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Парсер CSV выписок в собственном формате Zaman Bank. Колонки определяются по заголовку,
+ * поэтому он же служит парсером по умолчанию для CSV других банков.
+ */
+@Service
+@Order(100)
+@RequiredArgsConstructor
+@Slf4j
+public class BankStatementCsvParserService implements StatementParser {
+
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+  private static final String DEFAULT_CURRENCY = "KZT";
+  private static final String ZAMAN_BANK_NAME = "Zaman";
+
+  @Override
+  public String getBankName() {
+    return "Zaman Bank";
+  }
+
+  @Override
+  public String getExtension() {
+    return "csv";
+  }
+
+  @Override
+  public boolean supports(String sample) {
+    return sample.contains(ZAMAN_BANK_NAME);
+  }
+
+  @Override
+  public boolean isFallback() {
+    return true;
+  }
+
+  @Override
+  public BankStatement parse(String filePath, StatementParseListener listener) throws IOException {
+    return streamCsvStatement(filePath, listener);
+  }
+
+  public BankStatement parseCsvStatement(String filePath) throws IOException {
+    List<BankTransaction> transactions = new ArrayList<>();
+    BankStatement statement = streamCsvStatement(filePath, transactions::add);
+    statement.setTransactions(transactions);
+    return statement;
+  }
+
+  public BankStatement streamCsvStatement(String filePath, StatementParseListener listener)
+    throws IOException {
+    log.info("Начинаем парсинг CSV файла: {}", filePath);
+
+    try (InputStream inputStream = Files.newInputStream(Paths.get(filePath))) {
+      return streamCsvStatement(inputStream, listener);
+    }
+  }
+
+  /**
+   * Читает выписку из потока построчно, не загружая файл целиком.
+   * Строки передаются в listener сразу после разбора.
+   */
+  public BankStatement streamCsvStatement(InputStream inputStream, StatementParseListener listener)
+    throws IOException {
+    Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    CsvRecordReader csvReader = new CsvRecordReader(reader, CsvRecordReader.AUTO_DELIMITER);
+    List<String> fields = new ArrayList<>();
+    CsvColumns columns = null;
+    LocalDate periodFrom = null;
+    LocalDate periodTo = null;
+    long transactionsCount = 0;
+
+    while (csvReader.nextRecord(fields)) {
+      if (isBlankRecord(fields)) {
+        continue;
+      }
+
+      if (columns == null) {
+        columns = CsvColumns.fromHeader(fields);
+        if (columns != null) {
+          continue;
+        }
+        // Заголовка нет: дата; описание; сумма; валюта
+        columns = CsvColumns.positional();
+      }
+
+      BankTransaction transaction = parseRecord(fields, columns, csvReader.getRecordNumber());
+      if (transaction == null) {
+        continue;
+      }
+
+      LocalDate date = transaction.getOperationDate();
+      periodFrom = periodFrom == null || date.isBefore(periodFrom) ? date : periodFrom;
+      periodTo = periodTo == null || date.isAfter(periodTo) ? date : periodTo;
+      transactionsCount++;
+      listener.onTransaction(transaction);
+    }
+
+    log.info("Успешно распарсено {} транзакций", transactionsCount);
+
+    return BankStatement.builder()
+      .periodFrom(periodFrom)
+      .periodTo(periodTo)
+      .transactions(new ArrayList<>())
+      .build();
+  }
+
+  private BankTransaction parseRecord(List<String> fields, CsvColumns columns, long recordNumber) {
+    String dateValue = field(fields, columns.date);
+    if (dateValue == null) {
+      log.warn("Пропущена запись {} без даты", recordNumber);
+      return null;
+    }
+
+    LocalDate operationDate;
+    try {
+      operationDate = parseDate(dateValue);
+    } catch (DateTimeParseException e) {
+      log.warn("Ошибка при парсинге даты в записи {}: {}", recordNumber, dateValue);
+      return null;
+    }
+
+    String processingDateValue = field(fields, columns.processingDate);
+    LocalDate processingDate = operationDate;
+    if (processingDateValue != null) {
+      try {
+        processingDate = parseDate(processingDateValue);
+      } catch (DateTimeParseException e) {
+        log.debug("Некорректная дата обработки в записи {}: {}", recordNumber, processingDateValue);
+      }
+    }
+
+    BigDecimal creditAmount;
+    BigDecimal debitAmount;
+    BigDecimal commission;
+    BigDecimal amount;
+    try {
+      creditAmount = parseOptionalAmount(field(fields, columns.credit));
+      debitAmount = parseOptionalAmount(field(fields, columns.debit));
+      commission = parseOptionalAmount(field(fields, columns.commission));
+      if (columns.amount >= 0) {
+        amount = parseOptionalAmount(field(fields, columns.amount));
+      } else if (creditAmount != null && creditAmount.signum() != 0) {
+        amount = creditAmount.abs();
+      } else if (debitAmount != null) {
+        amount = debitAmount.abs().negate();
+      } else {
+        amount = creditAmount;
+      }
+    } catch (NumberFormatException e) {
+      log.warn("Ошибка при парсинге суммы в записи {}: {}", recordNumber, e.getMessage());
+      return null;
+    }
+    if (amount == null) {
+      log.warn("Пропущена запись {} без суммы", recordNumber);
+      return null;
+    }
+
+    String currency = field(fields, columns.currency);
+    String description = field(fields, columns.description);
+
+    return BankTransaction.builder()
+      .operationDate(operationDate)
+      .processingDate(processingDate)
+      .description(description != null ? description : "")
+      .amount(amount.abs())
+      .currency(currency != null ? currency : DEFAULT_CURRENCY)
+      .creditAmount(creditAmount)
+      .debitAmount(debitAmount)
+      .commission(commission)
+      .type(amount.signum() > 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+      .build();
+  }
+
+  private LocalDate parseDate(String value) {
+    // Поддерживаем dd.MM.yyyy и ISO yyyy-MM-dd; время после даты отбрасываем
+    String date = value.length() > 10 ? value.substring(0, 10) : value;
+    if (date.length() == 10 && date.charAt(4) == '-') {
+      return LocalDate.parse(date);
+    }
+    return LocalDate.parse(date, DATE_FORMATTER);
+  }
+
+  private BigDecimal parseOptionalAmount(String value) {
+    return value != null ? TransactionLineScanner.parseAmount(value) : null;
+  }
+
+  private String field(List<String> fields, int index) {
+    if (index < 0 || index >= fields.size()) {
+      return null;
+    }
+    String value = fields.get(index).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  private boolean isBlankRecord(List<String> fields) {
+    for (String value : fields) {
+      if (!value.isBlank()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Индексы колонок CSV. Отсутствующая колонка имеет индекс -1.
+   */
+  private static final class CsvColumns {
+    private int date = -1;
+    private int processingDate = -1;
+    private int description = -1;
+    private int amount = -1;
+    private int credit = -1;
+    private int debit = -1;
+    private int currency = -1;
+    private int commission = -1;
+
+    static CsvColumns positional() {
+      CsvColumns columns = new CsvColumns();
+      columns.date = 0;
+      columns.description = 1;
+      columns.amount = 2;
+      columns.currency = 3;
+      return columns;
+    }
+
+    /**
+     * Распознает строку заголовка. Возвращает null, если колонка с датой не найдена.
+     */
+    static CsvColumns fromHeader(List<String> header) {
+      CsvColumns columns = new CsvColumns();
+      for (int i = 0; i < header.size(); i++) {
+        String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+        if (name.contains("дата обработки") || name.contains("processing")) {
+          columns.processingDate = i;
+        } else if (name.startsWith("дата") || name.equals("date")) {
+          if (columns.date < 0) {
+            columns.date = i;
+          }
+        } else if (name.contains("описание") || name.contains("назначение")
+          || name.contains("description") || name.contains("details")) {
+          columns.description = i;
+        } else if (name.contains("комиссия") || name.contains("commission") || name.contains("fee")) {
+          columns.commission = i;
+        } else if (name.contains("приход") || name.contains("зачисление") || name.equals("credit")) {
+          columns.credit = i;
+        } else if (name.contains("расход") || name.contains("списание") || name.equals("debit")) {
+          columns.debit = i;
+        } else if (name.contains("сумма") || name.equals("amount")) {
+          columns.amount = i;
+        } else if (name.contains("валюта") || name.equals("currency")) {
+          columns.currency = i;
+        }
+      }
+      return columns.date >= 0 ? columns : null;
+    }
+  }
+}
@@ -1,7 +1,12 @@
 package com.zamanbank.aiassistant.service.parser;
 
 import com.zamanbank.aiassistant.dto.bank.BankStatement;
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,22 +16,69 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class BankStatementParserService {
 
-  private final BankStatementPdfParserService pdfParser;
+  private final StatementParserRegistry parserRegistry;
 
   public BankStatement parseStatement(String filePath) throws IOException {
     log.info("Начинаем парсинг банковской выписки: {}", filePath);
 
-    if (filePath.endsWith(".pdf")) {
-      return pdfParser.parsePdfStatement(filePath);
-    } else if (filePath.endsWith(".csv")) {
-      // TODO: Реализовать CSV парсер
-      throw new UnsupportedOperationException("CSV парсер пока не реализован");
-    } else {
-      throw new UnsupportedOperationException("Неподдерживаемый формат файла: " + filePath);
+    List<BankTransaction> transactions = new ArrayList<>();
+    BankStatement statement = parseWithFallback(filePath, transactions::add);
+    // Сводим транзакции в хронологическом порядке независимо от порядка в документе
+    transactions.sort(Comparator.comparing(BankTransaction::getOperationDate));
+    statement.setTransactions(transactions);
+    return statement;
+  }
+
+  public BankStatement parseStatement(String filePath, StatementParseListener listener)
+    throws IOException {
+    log.info("Начинаем потоковый парсинг банковской выписки: {}", filePath);
+
+    return parseWithFallback(filePath, listener);
+  }
+
+  /**
+   * Если выбранный по шапке парсер не нашел ни одной операции, файл разбирается
+   * парсером по умолчанию для расширения: шапка могла совпасть, а таблица - нет.
+   * До этого момента в listener не передано ни одной транзакции, поэтому повтор безопасен.
+   */
+  private BankStatement parseWithFallback(String filePath, StatementParseListener listener) throws IOException {
+    StatementParser parser = parserRegistry.resolve(filePath);
+    CountingListener counting = new CountingListener(listener);
+    BankStatement statement = parser.parse(filePath, counting);
+    if (counting.transactions > 0) {
+      return statement;
+    }
+
+    Optional<StatementParser> fallback = parserRegistry.fallbackFor(filePath, parser);
+    if (fallback.isEmpty()) {
+      return statement;
     }
+    log.warn("Парсер {} не нашел операций в {}, повторяем парсером {}",
+      parser.getBankName(), filePath, fallback.get().getBankName());
+    return fallback.get().parse(filePath, listener);
   }
 
   public boolean isSupportedFormat(String fileName) {
-    return fileName.endsWith(".pdf") || fileName.endsWith(".csv");
+    return parserRegistry.isSupportedFormat(fileName);
+  }
+
+  private static final class CountingListener implements StatementParseListener {
+    private final StatementParseListener delegate;
+    private long transactions;
+
+    private CountingListener(StatementParseListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void onTransaction(BankTransaction transaction) {
+      transactions++;
+      delegate.onTransaction(transaction);
+    }
+
+    @Override
+    public void onPageParsed(int page, int totalPages) {
+      delegate.onPageParsed(page, totalPages);
+    }
   }
-}
\ No newline at end of file
+}
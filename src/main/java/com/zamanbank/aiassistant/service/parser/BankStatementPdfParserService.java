@@ -2,219 +2,197 @@ package com.zamanbank.aiassistant.service.parser;
 
 import com.zamanbank.aiassistant.dto.bank.BankStatement;
 import com.zamanbank.aiassistant.dto.bank.BankTransaction;
-import com.zamanbank.aiassistant.model.enums.TransactionType;
-import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
+/**
+ * Парсер PDF выписок Halyk Bank.
+ */
 @Service
+@Order(100)
 @RequiredArgsConstructor
 @Slf4j
-public class BankStatementPdfParserService {
+public class BankStatementPdfParserService implements StatementParser {
 
-  private static final String HALYK_BANK_PATTERN = "АО 'Народный Банк Казахстана'";
+  // Юридическое лицо в шапке; кавычки в PDF бывают разными, поэтому сравнивается название без них
+  private static final String LEGAL_ENTITY_PREFIX = "АО";
+  private static final String HALYK_BANK_PATTERN = "Народный Банк Казахстана";
   private static final String CLIENT_NAME_PATTERN = "ФИО:";
   private static final String IIN_PATTERN = "ИИН:";
   private static final String ACCOUNT_PATTERN = "Текущий счет";
   private static final String BALANCE_PATTERN = "Входящий баланс:";
   private static final String OUTGOING_PATTERN = "Исходящий баланс:";
 
-  public BankStatement parsePdfStatement(String filePath) throws IOException {
-    log.info("Начинаем парсинг PDF файла: {}", filePath);
-
-    try (PDDocument document = PDDocument.load(new File(filePath))) {
-      PDFTextStripper stripper = new PDFTextStripper();
-      String text = stripper.getText(document);
-
-      log.debug("Извлеченный текст из PDF: {}", text.substring(0, Math.min(500, text.length())));
-
-      return parseBankStatement(text);
-    }
-  }
-
-  private BankStatement parseBankStatement(String text) {
-    BankStatement.BankStatementBuilder builder = BankStatement.builder();
-
-    // Парсим информацию о клиенте
-    parseClientInfo(text, builder);
+  private static final String TABLE_START_PATTERN = "Дата проведения операции";
+  private static final String TABLE_END_PATTERN = "Всего:";
 
-    // Парсим балансы
-    parseBalances(text, builder);
+  private final PdfTextExtractor pdfTextExtractor;
 
-    // Парсим транзакции
-    List<BankTransaction> transactions = parseTransactions(text);
-    builder.transactions(transactions);
-
-    log.info("Успешно распарсено {} транзакций", transactions.size());
-
-    return builder.build();
+  @Override
+  public String getBankName() {
+    return "Halyk Bank";
   }
 
-  private void parseClientInfo(String text, BankStatement.BankStatementBuilder builder) {
-    // Извлекаем ФИО
-    String clientName = extractValueAfterPattern(text, CLIENT_NAME_PATTERN, "\n");
-    builder.clientName(clientName);
-
-    // Извлекаем ИИН
-    String iin = extractValueAfterPattern(text, IIN_PATTERN, "\n");
-    builder.iin(iin);
-
-    // Извлекаем тип счета
-    String accountType = extractValueAfterPattern(text, ACCOUNT_PATTERN, "\n");
-    builder.accountType(accountType);
-
-    log.debug("Клиент: {}, ИИН: {}, Тип счета: {}", clientName, iin, accountType);
+  @Override
+  public String getExtension() {
+    return "pdf";
   }
 
-  private void parseBalances(String text, BankStatement.BankStatementBuilder builder) {
-    // Извлекаем входящий баланс
-    String incomingBalance = extractValueAfterPattern(text, BALANCE_PATTERN, "KZT");
-    if (incomingBalance != null) {
-      builder.incomingBalanceKzt(parseAmount(incomingBalance));
+  @Override
+  public boolean supports(String sample) {
+    for (String line : StatementHeader.lines(sample, TABLE_START_PATTERN)) {
+      if (line.startsWith(LEGAL_ENTITY_PREFIX) && line.contains(HALYK_BANK_PATTERN)) {
+        return true;
+      }
     }
+    return false;
+  }
 
-    // Извлекаем исходящий баланс
-    String outgoingBalance = extractValueAfterPattern(text, OUTGOING_PATTERN, "KZT");
-    if (outgoingBalance != null) {
-      builder.outgoingBalanceKzt(parseAmount(outgoingBalance));
-    }
+  /**
+   * Формат Halyk использовался до появления реестра, поэтому остается парсером по умолчанию для PDF.
+   */
+  @Override
+  public boolean isFallback() {
+    return true;
+  }
 
-    log.debug("Входящий баланс: {}, Исходящий баланс: {}",
-      builder.build().getIncomingBalanceKzt(),
-      builder.build().getOutgoingBalanceKzt());
+  @Override
+  public BankStatement parse(String filePath, StatementParseListener listener) throws IOException {
+    return streamPdfStatement(filePath, listener);
   }
 
-  private List<BankTransaction> parseTransactions(String text) {
+  public BankStatement parsePdfStatement(String filePath) throws IOException {
     List<BankTransaction> transactions = new ArrayList<>();
+    BankStatement statement = streamPdfStatement(filePath, transactions::add);
+    // Сводим транзакции в хронологическом порядке независимо от порядка в документе
+    transactions.sort(Comparator.comparing(BankTransaction::getOperationDate));
+    statement.setTransactions(transactions);
+    return statement;
+  }
 
-    // Находим таблицу транзакций
-    String transactionTable = extractTransactionTable(text);
+  /**
+   * Потоковый парсинг: документ читается постранично, транзакции передаются в listener
+   * сразу после разбора страницы. В памяти одновременно находится текст только одной страницы.
+   * Возвращаемая выписка содержит реквизиты и балансы, список транзакций в ней пуст.
+   */
+  public BankStatement streamPdfStatement(String filePath, StatementParseListener listener)
+    throws IOException {
+    log.info("Начинаем парсинг PDF файла: {}", filePath);
 
-    if (transactionTable != null) {
-      String[] lines = transactionTable.split("\n");
+    PdfStatementState state = new PdfStatementState(listener);
 
-      for (String line : lines) {
-        if (isTransactionLine(line)) {
-          BankTransaction transaction = parseTransactionLine(line);
-          if (transaction != null) {
-            transactions.add(transaction);
-          }
-        }
+    pdfTextExtractor.extractLines(filePath, new PdfTextExtractor.PdfLineHandler() {
+      @Override
+      public void onLine(String line) {
+        acceptLine(line, state);
       }
-    }
-
-    return transactions;
-  }
 
-  private String extractTransactionTable(String text) {
-    // Ищем начало таблицы транзакций
-    String tableStart = "Дата проведения операции";
-    String tableEnd = "Всего:";
-
-    int startIndex = text.indexOf(tableStart);
-    int endIndex = text.indexOf(tableEnd);
+      @Override
+      public void onPageParsed(int page, int totalPages) {
+        listener.onPageParsed(page, totalPages);
+      }
+    });
 
-    if (startIndex != -1 && endIndex != -1) {
-      return text.substring(startIndex, endIndex);
-    }
+    log.info("Успешно распарсено {} транзакций", state.transactionsCount);
+    log.debug("Клиент: {}, ИИН: {}, Входящий баланс: {}, Исходящий баланс: {}",
+      state.statement.getClientName(), state.statement.getIin(),
+      state.statement.getIncomingBalanceKzt(), state.statement.getOutgoingBalanceKzt());
 
-    return null;
+    return state.statement;
   }
 
-  private boolean isTransactionLine(String line) {
-    // Проверяем, что строка содержит дату и сумму
-    return line.matches("\\d{2}\\.\\d{2}\\.\\d{4}.*\\d+,\\d+");
-  }
+  private void acceptLine(String line, PdfStatementState state) {
+    parseHeaderLine(line, state.statement);
 
-  private BankTransaction parseTransactionLine(String line) {
-    try {
-      // Парсим строку транзакции
-      String[] parts = line.split("\\s+");
+    if (state.tableFinished) {
+      return;
+    }
 
-      if (parts.length < 4) {
-        return null;
-      }
+    if (!state.tableStarted) {
+      // Строка с заголовком таблицы сама транзакцией не является
+      state.tableStarted = line.contains(TABLE_START_PATTERN);
+      return;
+    }
 
-      // Извлекаем дату
-      LocalDate operationDate = parseDate(parts[0]);
+    int endIndex = line.indexOf(TABLE_END_PATTERN);
+    if (endIndex != -1) {
+      state.tableFinished = true;
+      line = line.substring(0, endIndex);
+    }
 
-      // Извлекаем описание (собираем все части кроме даты и суммы)
-      StringBuilder description = new StringBuilder();
-      for (int i = 1; i < parts.length - 1; i++) {
-        if (!parts[i].matches("-?\\d+,\\d+")) {
-          description.append(parts[i]).append(" ");
-        }
+    if (TransactionLineScanner.isTransactionLine(line)) {
+      BankTransaction transaction = TransactionLineScanner.parseTransactionLine(line);
+      if (transaction != null) {
+        state.transactionsCount++;
+        state.listener.onTransaction(transaction);
       }
-
-      // Извлекаем сумму
-      BigDecimal amount = parseAmount(parts[parts.length - 1]);
-
-      // Определяем тип транзакции
-      TransactionType type = amount.compareTo(BigDecimal.ZERO) > 0
-        ? TransactionType.INCOME
-        : TransactionType.EXPENSE;
-
-      return BankTransaction.builder()
-        .operationDate(operationDate)
-        .processingDate(operationDate)
-        .description(description.toString().trim())
-        .amount(amount.abs())
-        .currency("KZT")
-        .type(type)
-        .build();
-
-    } catch (Exception e) {
-      log.warn("Ошибка при парсинге строки транзакции: {}", line, e);
-      return null;
     }
   }
 
-  private String extractValueAfterPattern(String text, String pattern, String delimiter) {
-    int patternIndex = text.indexOf(pattern);
-    if (patternIndex != -1) {
-      int startIndex = patternIndex + pattern.length();
-      int endIndex = text.indexOf(delimiter, startIndex);
-      if (endIndex == -1) {
-        endIndex = text.indexOf("\n", startIndex);
+  private void parseHeaderLine(String line, BankStatement statement) {
+    if (statement.getClientName() == null) {
+      statement.setClientName(extractValueAfterPattern(line, CLIENT_NAME_PATTERN, null));
+    }
+    if (statement.getIin() == null) {
+      statement.setIin(extractValueAfterPattern(line, IIN_PATTERN, null));
+    }
+    if (statement.getAccountType() == null) {
+      statement.setAccountType(extractValueAfterPattern(line, ACCOUNT_PATTERN, null));
+    }
+    if (statement.getIncomingBalanceKzt() == null) {
+      String incomingBalance = extractValueAfterPattern(line, BALANCE_PATTERN, "KZT");
+      if (incomingBalance != null) {
+        statement.setIncomingBalanceKzt(parseBalance(incomingBalance));
       }
-      if (endIndex != -1) {
-        return text.substring(startIndex, endIndex).trim();
+    }
+    if (statement.getOutgoingBalanceKzt() == null) {
+      String outgoingBalance = extractValueAfterPattern(line, OUTGOING_PATTERN, "KZT");
+      if (outgoingBalance != null) {
+        statement.setOutgoingBalanceKzt(parseBalance(outgoingBalance));
       }
     }
-    return null;
   }
 
-  private BigDecimal parseAmount(String amountStr) {
-    if (amountStr == null || amountStr.trim().isEmpty()) {
-      return BigDecimal.ZERO;
-    }
-
+  private BigDecimal parseBalance(String value) {
     try {
-      // Убираем пробелы и заменяем запятую на точку
-      String cleanAmount = amountStr.replaceAll("\\s+", "").replace(",", ".");
-      return new BigDecimal(cleanAmount);
+      return TransactionLineScanner.parseAmount(value);
     } catch (NumberFormatException e) {
-      log.warn("Ошибка при парсинге суммы: {}", amountStr);
-      return BigDecimal.ZERO;
+      log.warn("Ошибка при парсинге остатка: {}", value);
+      return null;
     }
   }
 
-  private LocalDate parseDate(String dateStr) {
-    try {
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-      return LocalDate.parse(dateStr, formatter);
-    } catch (Exception e) {
-      log.warn("Ошибка при парсинге даты: {}", dateStr);
-      return LocalDate.now();
+  private String extractValueAfterPattern(String line, String pattern, String delimiter) {
+    int patternIndex = line.indexOf(pattern);
+    if (patternIndex == -1) {
+      return null;
+    }
+    int startIndex = patternIndex + pattern.length();
+    int endIndex = delimiter != null ? line.indexOf(delimiter, startIndex) : -1;
+    if (endIndex == -1) {
+      endIndex = line.length();
+    }
+    return line.substring(startIndex, endIndex).trim();
+  }
+
+  private static final class PdfStatementState {
+    private final StatementParseListener listener;
+    private final BankStatement statement = BankStatement.builder()
+      .transactions(new ArrayList<>())
+      .build();
+    private boolean tableStarted;
+    private boolean tableFinished;
+    private int transactionsCount;
+
+    private PdfStatementState(StatementParseListener listener) {
+      this.listener = listener;
     }
   }
 }
\ No newline at end of file
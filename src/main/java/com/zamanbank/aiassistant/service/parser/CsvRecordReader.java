@@ -0,0 +1,158 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Потоковое чтение CSV через буфер фиксированного размера. Поддерживает поля в кавычках
+ * (включая переводы строк и экранирование {@code ""}) и разделители {@code ;} и {@code ,}.
+ * Разделитель определяется по первой строке, если не задан явно.
+ * Память не зависит от размера файла: переиспользуются буфер, построитель поля и список полей.
+ */
+final class CsvRecordReader {
+
+  static final char AUTO_DELIMITER = 0;
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_FIELD_LENGTH = 64 * 1024;
+  private static final int EOF = -1;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder field = new StringBuilder();
+  private int position;
+  private int limit;
+  private char delimiter;
+  private long recordNumber;
+
+  CsvRecordReader(Reader reader, char delimiter) {
+    this.reader = reader;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Читает следующую запись в переданный список (он очищается).
+   *
+   * @return false, если достигнут конец потока
+   */
+  boolean nextRecord(List<String> fields) throws IOException {
+    fields.clear();
+    field.setLength(0);
+
+    if (delimiter == AUTO_DELIMITER) {
+      delimiter = detectDelimiter();
+    }
+
+    int c = read();
+    if (c == EOF) {
+      return false;
+    }
+    if (recordNumber == 0 && c == '\uFEFF') {
+      c = read();
+    }
+    recordNumber++;
+
+    boolean inQuotes = false;
+    while (c != EOF) {
+      if (inQuotes) {
+        if (c == '"') {
+          if (peek() == '"') {
+            read();
+            append('"');
+          } else {
+            inQuotes = false;
+          }
+        } else {
+          append((char) c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        inQuotes = true;
+      } else if (c == delimiter) {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n') {
+        break;
+      } else if (c == '\r') {
+        if (peek() == '\n') {
+          read();
+        }
+        break;
+      } else {
+        append((char) c);
+      }
+      c = read();
+    }
+
+    if (inQuotes) {
+      throw new IOException("Незакрытая кавычка в записи " + recordNumber);
+    }
+    fields.add(field.toString());
+    return true;
+  }
+
+  long getRecordNumber() {
+    return recordNumber;
+  }
+
+  private char detectDelimiter() throws IOException {
+    if (!fill()) {
+      return ';';
+    }
+    int semicolons = 0;
+    int commas = 0;
+    boolean inQuotes = false;
+    for (int i = position; i < limit; i++) {
+      char c = buffer[i];
+      if (c == '"') {
+        inQuotes = !inQuotes;
+      } else if (!inQuotes) {
+        if (c == '\n' || c == '\r') {
+          break;
+        } else if (c == ';') {
+          semicolons++;
+        } else if (c == ',') {
+          commas++;
+        }
+      }
+    }
+    return commas > semicolons ? ',' : ';';
+  }
+
+  private void append(char c) throws IOException {
+    if (field.length() >= MAX_FIELD_LENGTH) {
+      throw new IOException("Слишком длинное поле в записи " + recordNumber);
+    }
+    field.append(c);
+  }
+
+  private int read() throws IOException {
+    if (position >= limit && !fill()) {
+      return EOF;
+    }
+    return buffer[position++];
+  }
+
+  private int peek() throws IOException {
+    if (position >= limit && !fill()) {
+      return EOF;
+    }
+    return buffer[position];
+  }
+
+  private boolean fill() throws IOException {
+    if (position < limit) {
+      return true;
+    }
+    int read;
+    do {
+      read = reader.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    if (read == EOF) {
+      return false;
+    }
+    position = 0;
+    limit = read;
+    return true;
+  }
+}
@@ -0,0 +1,218 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankStatement;
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Парсер PDF выписок Kaspi Gold. Строка операции имеет вид
+ * {@code dd.MM.yy <знак> <сумма> ₸ <операция> <детали>}, например
+ * {@code 05.03.24 - 12 500,00 ₸ Покупки MAGNUM}.
+ */
+@Service
+@Order(10)
+@RequiredArgsConstructor
+@Slf4j
+public class KaspiStatementParser implements StatementParser {
+
+  // Юридическое лицо («АО «Kaspi Bank»») и заголовок «ВЫПИСКА по Kaspi Gold» в шапке
+  private static final String LEGAL_ENTITY_PREFIX = "АО";
+  private static final String KASPI_BANK_PATTERN = "Kaspi Bank";
+  private static final String TITLE_PREFIX = "ВЫПИСКА";
+  private static final String KASPI_GOLD_PATTERN = "Kaspi Gold";
+  private static final String TABLE_HEADER_PREFIX = "Дата";
+  private static final String PERIOD_PATTERN = "за период с";
+  private static final String ACCOUNT_PATTERN = "Номер счета:";
+  private static final String AVAILABLE_PATTERN = "Доступно на";
+  private static final char TENGE_SIGN = '\u20B8';
+  private static final int SHORT_DATE_LENGTH = 8;
+
+  private final PdfTextExtractor pdfTextExtractor;
+
+  @Override
+  public String getBankName() {
+    return "Kaspi Bank";
+  }
+
+  @Override
+  public String getExtension() {
+    return "pdf";
+  }
+
+  @Override
+  public boolean supports(String sample) {
+    for (String line : StatementHeader.lines(sample, TABLE_HEADER_PREFIX)) {
+      if (line.startsWith(LEGAL_ENTITY_PREFIX) && line.contains(KASPI_BANK_PATTERN)) {
+        return true;
+      }
+      if (line.regionMatches(true, 0, TITLE_PREFIX, 0, TITLE_PREFIX.length()) && line.contains(KASPI_GOLD_PATTERN)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public BankStatement parse(String filePath, StatementParseListener listener) throws IOException {
+    log.info("Начинаем парсинг PDF выписки Kaspi: {}", filePath);
+
+    BankStatement statement = BankStatement.builder()
+      .transactions(new ArrayList<>())
+      .build();
+    long[] transactionsCount = new long[1];
+
+    pdfTextExtractor.extractLines(filePath, new PdfTextExtractor.PdfLineHandler() {
+      @Override
+      public void onLine(String line) {
+        // В PDF Kaspi разряды суммы разделены неразрывными пробелами
+        String normalized = line.replace('\u00A0', ' ').replace('\u202F', ' ').trim();
+        BankTransaction transaction = parseTransactionLine(normalized);
+        if (transaction != null) {
+          transactionsCount[0]++;
+          listener.onTransaction(transaction);
+        } else {
+          parseHeaderLine(normalized, statement);
+        }
+      }
+
+      @Override
+      public void onPageParsed(int page, int totalPages) {
+        listener.onPageParsed(page, totalPages);
+      }
+    });
+
+    log.info("Успешно распарсено {} транзакций", transactionsCount[0]);
+    return statement;
+  }
+
+  private BankTransaction parseTransactionLine(String line) {
+    if (line.length() <= SHORT_DATE_LENGTH || !isShortDate(line, 0)
+      || line.charAt(SHORT_DATE_LENGTH) != ' ') {
+      return null;
+    }
+    int currencyIndex = line.indexOf(TENGE_SIGN, SHORT_DATE_LENGTH);
+    if (currencyIndex == -1 || !isAmount(line, SHORT_DATE_LENGTH, currencyIndex)) {
+      return null;
+    }
+
+    LocalDate operationDate = parseShortDate(line, 0);
+    if (operationDate == null) {
+      return null;
+    }
+    BigDecimal amount;
+    try {
+      amount = TransactionLineScanner.parseAmount(line, SHORT_DATE_LENGTH, currencyIndex);
+    } catch (NumberFormatException e) {
+      log.warn("Ошибка при парсинге суммы в строке: {}", line);
+      return null;
+    }
+    if (amount == null) {
+      return null;
+    }
+
+    return BankTransaction.builder()
+      .operationDate(operationDate)
+      .processingDate(operationDate)
+      .description(line.substring(currencyIndex + 1).trim())
+      .amount(amount.abs())
+      .currency("KZT")
+      .type(amount.signum() > 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+      .build();
+  }
+
+  private void parseHeaderLine(String line, BankStatement statement) {
+    int periodIndex = line.indexOf(PERIOD_PATTERN);
+    if (periodIndex != -1 && statement.getPeriodFrom() == null) {
+      // за период с 01.01.24 по 31.01.24
+      int fromIndex = periodIndex + PERIOD_PATTERN.length() + 1;
+      int toIndex = line.indexOf("по ", fromIndex);
+      if (line.length() >= fromIndex + SHORT_DATE_LENGTH && isShortDate(line, fromIndex)) {
+        statement.setPeriodFrom(parseShortDate(line, fromIndex));
+      }
+      if (toIndex != -1 && line.length() >= toIndex + 3 + SHORT_DATE_LENGTH && isShortDate(line, toIndex + 3)) {
+        statement.setPeriodTo(parseShortDate(line, toIndex + 3));
+      }
+      return;
+    }
+
+    int accountIndex = line.indexOf(ACCOUNT_PATTERN);
+    if (accountIndex != -1 && statement.getKztAccount() == null) {
+      statement.setKztAccount(line.substring(accountIndex + ACCOUNT_PATTERN.length()).trim());
+      return;
+    }
+
+    // Первая строка «Доступно на» - остаток на начало периода, вторая - на конец
+    if (line.startsWith(AVAILABLE_PATTERN)) {
+      int currencyIndex = line.indexOf(TENGE_SIGN);
+      int amountStart = AVAILABLE_PATTERN.length() + 1 + SHORT_DATE_LENGTH;
+      if (currencyIndex == -1 || amountStart > currencyIndex) {
+        return;
+      }
+      BigDecimal balance;
+      try {
+        balance = TransactionLineScanner.parseAmount(line, amountStart, currencyIndex);
+      } catch (NumberFormatException e) {
+        log.warn("Ошибка при парсинге остатка: {}", line);
+        return;
+      }
+      if (statement.getIncomingBalanceKzt() == null) {
+        statement.setIncomingBalanceKzt(balance);
+      } else if (statement.getOutgoingBalanceKzt() == null) {
+        statement.setOutgoingBalanceKzt(balance);
+      }
+    }
+  }
+
+  /**
+   * Между датой и знаком валюты допускаются только знак, цифры, пробелы и разделители.
+   */
+  private boolean isAmount(String line, int start, int end) {
+    boolean digitSeen = false;
+    for (int i = start; i < end; i++) {
+      char c = line.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digitSeen = true;
+      } else if (c != ' ' && c != ',' && c != '.' && c != '+' && c != '-') {
+        return false;
+      }
+    }
+    return digitSeen;
+  }
+
+  private boolean isShortDate(String text, int start) {
+    return isDigit(text.charAt(start)) && isDigit(text.charAt(start + 1))
+      && text.charAt(start + 2) == '.'
+      && isDigit(text.charAt(start + 3)) && isDigit(text.charAt(start + 4))
+      && text.charAt(start + 5) == '.'
+      && isDigit(text.charAt(start + 6)) && isDigit(text.charAt(start + 7));
+  }
+
+  private LocalDate parseShortDate(String text, int start) {
+    int day = twoDigits(text, start);
+    int month = twoDigits(text, start + 3);
+    int year = 2000 + twoDigits(text, start + 6);
+    try {
+      return LocalDate.of(year, month, day);
+    } catch (DateTimeException e) {
+      log.warn("Ошибка при парсинге даты: {}", text.substring(start, start + SHORT_DATE_LENGTH));
+      return null;
+    }
+  }
+
+  private int twoDigits(String text, int start) {
+    return (text.charAt(start) - '0') * 10 + (text.charAt(start + 1) - '0');
+  }
+
+  private boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,225 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Извлечение текста из PDF выписок, общее для всех банковских парсеров.
+ * Текст отдается построчно в порядке страниц; строка, разорванная границей
+ * страницы, склеивается до передачи обработчику.
+ */
+@Component
+@Slf4j
+public class PdfTextExtractor {
+
+  @Value("${app.parser.pdf.parallel.enabled:false}")
+  private boolean parallelEnabled;
+
+  @Value("${app.parser.pdf.parallel.threads:4}")
+  private int parallelThreads;
+
+  @Value("${app.parser.pdf.parallel.pages-per-range:20}")
+  private int pagesPerRange;
+
+  @Value("${app.parser.pdf.parallel.min-pages:40}")
+  private int parallelMinPages;
+
+  @Value("${app.parser.pdf.max-main-memory-bytes:4194304}")
+  private long maxMainMemoryBytes;
+
+  @Value("${app.temp.directory:temp}")
+  private String tempDirectory;
+
+  private ExecutorService pageRangeExecutor;
+
+  @PostConstruct
+  void initPageRangeExecutor() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    // Очередь ограничена: при переполнении диапазон извлекается в вызывающем потоке
+    pageRangeExecutor = new ThreadPoolExecutor(parallelThreads, parallelThreads,
+      60L, TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(parallelThreads * 4),
+      runnable -> {
+        Thread thread = new Thread(runnable, "pdf-parser-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @PreDestroy
+  void shutdownPageRangeExecutor() {
+    pageRangeExecutor.shutdownNow();
+  }
+
+  /**
+   * Текст только первой страницы: для определения банка по шапке выписки.
+   */
+  public String extractFirstPage(String filePath) throws IOException {
+    try (PDDocument document = loadDocument(new File(filePath))) {
+      if (document.getNumberOfPages() == 0) {
+        return "";
+      }
+      PDFTextStripper stripper = new PDFTextStripper();
+      stripper.setStartPage(1);
+      stripper.setEndPage(1);
+      return stripper.getText(document);
+    }
+  }
+
+  /**
+   * Потоковое извлечение: в памяти одновременно находится текст одной страницы
+   * (или ограниченного окна диапазонов в параллельном режиме).
+   */
+  public void extractLines(String filePath, PdfLineHandler handler) throws IOException {
+    File file = new File(filePath);
+    StringBuilder carry = new StringBuilder();
+
+    try (PDDocument document = loadDocument(file)) {
+      int totalPages = document.getNumberOfPages();
+
+      if (parallelEnabled && totalPages >= parallelMinPages) {
+        extractPagesInParallel(file, totalPages, carry, handler);
+      } else {
+        extractPages(document, totalPages, carry, handler);
+      }
+    }
+
+    if (carry.length() > 0) {
+      handler.onLine(carry.toString());
+    }
+  }
+
+  private void extractPages(PDDocument document, int totalPages, StringBuilder carry,
+    PdfLineHandler handler) throws IOException {
+    PDFTextStripper stripper = new PDFTextStripper();
+
+    for (int page = 1; page <= totalPages; page++) {
+      stripper.setStartPage(page);
+      stripper.setEndPage(page);
+      String pageText = stripper.getText(document);
+
+      if (page == 1) {
+        log.debug("Извлеченный текст из PDF: {}",
+          pageText.substring(0, Math.min(500, pageText.length())));
+      }
+
+      acceptText(pageText, carry, handler);
+      handler.onPageParsed(page, totalPages);
+    }
+  }
+
+  /**
+   * Текст диапазонов страниц извлекается параллельно, каждый воркер открывает
+   * собственный PDDocument и PDFTextStripper. Результаты разбираются строго по порядку
+   * страниц, поэтому состояние таблицы между диапазонами не теряется.
+   * Одновременно в работе не больше двух диапазонов на поток.
+   */
+  private void extractPagesInParallel(File file, int totalPages, StringBuilder carry,
+    PdfLineHandler handler) throws IOException {
+    log.debug("Параллельное извлечение текста: {} страниц, по {} страниц на диапазон",
+      totalPages, pagesPerRange);
+
+    Deque<PageRange> inFlight = new ArrayDeque<>();
+    int maxInFlight = parallelThreads * 2;
+    int nextStartPage = 1;
+
+    try {
+      while (nextStartPage <= totalPages || !inFlight.isEmpty()) {
+        while (nextStartPage <= totalPages && inFlight.size() < maxInFlight) {
+          int startPage = nextStartPage;
+          int endPage = Math.min(startPage + pagesPerRange - 1, totalPages);
+          inFlight.addLast(new PageRange(endPage,
+            pageRangeExecutor.submit(() -> extractPageRange(file, startPage, endPage))));
+          nextStartPage = endPage + 1;
+        }
+
+        PageRange range = inFlight.removeFirst();
+        acceptText(awaitPageRange(range.text()), carry, handler);
+        handler.onPageParsed(range.endPage(), totalPages);
+      }
+    } finally {
+      inFlight.forEach(range -> range.text().cancel(true));
+    }
+  }
+
+  private String extractPageRange(File file, int startPage, int endPage) throws IOException {
+    try (PDDocument document = loadDocument(file)) {
+      PDFTextStripper stripper = new PDFTextStripper();
+      stripper.setStartPage(startPage);
+      stripper.setEndPage(endPage);
+      return stripper.getText(document);
+    }
+  }
+
+  /**
+   * Файл читается с диска по требованию, а распакованные потоки сверх лимита
+   * уходят в scratch-файл, поэтому размер документа не определяет расход heap.
+   */
+  private PDDocument loadDocument(File file) throws IOException {
+    File scratchDirectory = Files.createDirectories(Paths.get(tempDirectory)).toFile();
+    MemoryUsageSetting memoryUsage = MemoryUsageSetting.setupMixed(maxMainMemoryBytes)
+      .setTempDir(scratchDirectory);
+    return PDDocument.load(file, memoryUsage);
+  }
+
+  private String awaitPageRange(Future<String> text) throws IOException {
+    try {
+      return text.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Парсинг PDF прерван", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException("Ошибка при извлечении текста из PDF", e.getCause());
+    }
+  }
+
+  private void acceptText(String text, StringBuilder carry, PdfLineHandler handler) {
+    int lineStart = 0;
+    int newLine;
+    while ((newLine = text.indexOf('\n', lineStart)) != -1) {
+      carry.append(text, lineStart, newLine);
+      handler.onLine(carry.toString());
+      carry.setLength(0);
+      lineStart = newLine + 1;
+    }
+    // Незавершенная строка переносится на следующую страницу
+    carry.append(text, lineStart, text.length());
+  }
+
+  /**
+   * Получатель строк текста PDF.
+   */
+  public interface PdfLineHandler {
+
+    void onLine(String line);
+
+    default void onPageParsed(int page, int totalPages) {
+    }
+  }
+
+  private record PageRange(int endPage, Future<String> text) {
+  }
+}
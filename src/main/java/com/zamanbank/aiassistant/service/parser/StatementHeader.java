@@ -0,0 +1,38 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Шапка выписки - строки образца до заголовка таблицы операций. Банк определяется
+ * только по шапке: в описаниях операций встречаются названия других банков и их
+ * продуктов («Перевод на Kaspi Gold»), и по всему тексту страницы парсер выбирался бы неверно.
+ */
+final class StatementHeader {
+
+  /**
+   * Если заголовок таблицы не найден, шапкой считается столько первых строк.
+   */
+  static final int MAX_HEADER_LINES = 15;
+
+  private StatementHeader() {
+  }
+
+  /**
+   * Строки образца до первой строки, начинающейся с {@code tableHeaderPrefix}, без пробелов по краям.
+   */
+  static List<String> lines(String sample, String tableHeaderPrefix) {
+    List<String> header = new ArrayList<>();
+    for (String line : sample.split("\\R")) {
+      String trimmed = line.replace('\u00A0', ' ').trim();
+      if (trimmed.startsWith(tableHeaderPrefix)) {
+        return header;
+      }
+      if (!trimmed.isEmpty()) {
+        header.add(trimmed);
+      }
+    }
+    // Заголовок таблицы не найден: операции могли попасть в образец, смотрим только начало
+    return header.size() > MAX_HEADER_LINES ? header.subList(0, MAX_HEADER_LINES) : header;
+  }
+}
@@ -0,0 +1,15 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+
+/**
+ * Получатель результатов потокового парсинга выписки.
+ * Транзакции передаются по одной, по мере разбора документа.
+ */
+public interface StatementParseListener {
+
+  void onTransaction(BankTransaction transaction);
+
+  default void onPageParsed(int page, int totalPages) {
+  }
+}
@@ -0,0 +1,38 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankStatement;
+import java.io.IOException;
+
+/**
+ * Парсер выписки конкретного банка. Реализации регистрируются как бины и выбираются
+ * {@link StatementParserRegistry} по расширению файла и образцу текста из его начала.
+ * Порядок проверки задается через {@link org.springframework.core.annotation.Order}.
+ */
+public interface StatementParser {
+
+  String getBankName();
+
+  /**
+   * Расширение файла без точки в нижнем регистре: pdf, csv.
+   */
+  String getExtension();
+
+  /**
+   * Проверяет, относится ли выписка к этому банку. Для PDF передается текст
+   * первой страницы, для текстовых форматов - первые несколько килобайт файла.
+   */
+  boolean supports(String sample);
+
+  /**
+   * Парсер, который используется для своего расширения, если ни один другой не подошел.
+   */
+  default boolean isFallback() {
+    return false;
+  }
+
+  /**
+   * Потоковый парсинг: транзакции передаются в listener по мере разбора,
+   * в возвращаемой выписке список транзакций пуст.
+   */
+  BankStatement parse(String filePath, StatementParseListener listener) throws IOException;
+}
@@ -0,0 +1,94 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Реестр парсеров выписок. Банк определяется по небольшому образцу файла
+ * (первая страница PDF или первые {@value #SAMPLE_BYTES} байт текстового файла),
+ * после чего документ целиком разбирает только выбранный парсер.
+ */
+@Component
+@Slf4j
+public class StatementParserRegistry {
+
+  static final int SAMPLE_BYTES = 4096;
+
+  private final PdfTextExtractor pdfTextExtractor;
+  private final Map<String, List<StatementParser>> parsersByExtension;
+
+  public StatementParserRegistry(List<StatementParser> parsers, PdfTextExtractor pdfTextExtractor) {
+    this.pdfTextExtractor = pdfTextExtractor;
+    // Список уже отсортирован Spring по @Order, группировка сохраняет порядок
+    this.parsersByExtension = parsers.stream()
+      .collect(Collectors.groupingBy(StatementParser::getExtension, Collectors.toList()));
+    log.info("Зарегистрированы парсеры выписок: {}", parsers.stream()
+      .map(parser -> parser.getBankName() + " (" + parser.getExtension() + ")")
+      .collect(Collectors.joining(", ")));
+  }
+
+  public boolean isSupportedFormat(String fileName) {
+    return fileName != null && parsersByExtension.containsKey(extensionOf(fileName));
+  }
+
+  public StatementParser resolve(String filePath) throws IOException {
+    String extension = extensionOf(filePath);
+    List<StatementParser> candidates = parsersByExtension.get(extension);
+    if (candidates == null) {
+      throw new UnsupportedOperationException("Неподдерживаемый формат файла: " + filePath);
+    }
+
+    String sample = readSample(filePath, extension);
+    for (StatementParser parser : candidates) {
+      if (parser.supports(sample)) {
+        log.info("Выписка {} определена как {}", filePath, parser.getBankName());
+        return parser;
+      }
+    }
+
+    StatementParser fallback = findFallback(extension).orElse(null);
+    if (fallback == null) {
+      throw new UnsupportedOperationException("Не удалось определить банк выписки: " + filePath);
+    }
+    log.info("Банк выписки {} не распознан, используется парсер {}", filePath, fallback.getBankName());
+    return fallback;
+  }
+
+  /**
+   * Парсер по умолчанию для расширения файла, если он отличается от уже использованного.
+   */
+  public Optional<StatementParser> fallbackFor(String filePath, StatementParser used) {
+    return findFallback(extensionOf(filePath)).filter(parser -> parser != used);
+  }
+
+  private Optional<StatementParser> findFallback(String extension) {
+    return parsersByExtension.getOrDefault(extension, List.of()).stream()
+      .filter(StatementParser::isFallback)
+      .findFirst();
+  }
+
+  private String readSample(String filePath, String extension) throws IOException {
+    if ("pdf".equals(extension)) {
+      return pdfTextExtractor.extractFirstPage(filePath);
+    }
+    try (InputStream inputStream = Files.newInputStream(Paths.get(filePath))) {
+      // Обрезанный на границе буфера символ заменяется, на распознавание это не влияет
+      return new String(inputStream.readNBytes(SAMPLE_BYTES), StandardCharsets.UTF_8);
+    }
+  }
+
+  private String extensionOf(String fileName) {
+    return FilenameUtils.getExtension(fileName).toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,323 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Однопроходный разбор строк таблицы операций без регулярных выражений
+ * и промежуточных массивов. Результат совпадает с прежним разбором через
+ * {@code String.matches}/{@code split}: формат строки
+ * {@code dd.MM.yyyy <описание> <сумма>}, где сумма - последний токен вида {@code -1234,56}.
+ */
+@Slf4j
+final class TransactionLineScanner {
+
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+  private static final int DATE_LENGTH = 10;
+  private static final int MAX_LONG_DIGITS = 18;
+
+  private TransactionLineScanner() {
+  }
+
+  /**
+   * Строка начинается с даты {@code dd.dd.dddd} и заканчивается суммой {@code \d+,\d+}.
+   */
+  static boolean isTransactionLine(CharSequence line) {
+    int length = line.length();
+    if (length < DATE_LENGTH + 3 || !isDatePrefix(line)) {
+      return false;
+    }
+
+    int i = length - 1;
+    while (i >= 0 && isDigit(line.charAt(i))) {
+      i--;
+    }
+    // i указывает на символ перед дробной частью: нужна запятая и хотя бы одна цифра до нее
+    if (i == length - 1 || line.charAt(i) != ',' || i - 1 < DATE_LENGTH || !isDigit(line.charAt(i - 1))) {
+      return false;
+    }
+
+    for (int j = DATE_LENGTH; j < i; j++) {
+      if (isLineTerminator(line.charAt(j))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static BankTransaction parseTransactionLine(CharSequence line) {
+    try {
+      int length = line.length();
+
+      // Первый токен - дата
+      int firstEnd = 0;
+      while (firstEnd < length && !isWhitespace(line.charAt(firstEnd))) {
+        firstEnd++;
+      }
+
+      // Последний токен - сумма
+      int lastEnd = length;
+      while (lastEnd > 0 && isWhitespace(line.charAt(lastEnd - 1))) {
+        lastEnd--;
+      }
+      int lastStart = lastEnd;
+      while (lastStart > 0 && !isWhitespace(line.charAt(lastStart - 1))) {
+        lastStart--;
+      }
+      if (lastStart <= firstEnd) {
+        return null;
+      }
+
+      // Описание - все токены между датой и суммой, кроме сумм
+      StringBuilder description = new StringBuilder(lastStart - firstEnd);
+      int middleTokens = 0;
+      int pos = firstEnd;
+      while (pos < lastStart) {
+        while (pos < lastStart && isWhitespace(line.charAt(pos))) {
+          pos++;
+        }
+        int tokenStart = pos;
+        while (pos < lastStart && !isWhitespace(line.charAt(pos))) {
+          pos++;
+        }
+        if (pos > tokenStart) {
+          middleTokens++;
+          if (!isAmountToken(line, tokenStart, pos)) {
+            if (description.length() > 0) {
+              description.append(' ');
+            }
+            description.append(line, tokenStart, pos);
+          }
+        }
+      }
+      if (middleTokens < 2) {
+        return null;
+      }
+
+      LocalDate operationDate = parseDate(line, 0, firstEnd);
+      BigDecimal amount = parseAmount(line, lastStart, lastEnd);
+
+      TransactionType type = amount.signum() > 0
+        ? TransactionType.INCOME
+        : TransactionType.EXPENSE;
+
+      return BankTransaction.builder()
+        .operationDate(operationDate)
+        .processingDate(operationDate)
+        .description(description.toString().trim())
+        .amount(amount.abs())
+        .currency("KZT")
+        .type(type)
+        .build();
+
+    } catch (Exception e) {
+      log.warn("Ошибка при парсинге строки транзакции: {}", line, e);
+      return null;
+    }
+  }
+
+  /**
+   * Сумма с запятой или точкой в качестве десятичного разделителя: {@code -1234,56},
+   * {@code 1 234,56}, {@code 1,234.56}, {@code 1.234,56}. Разряды могут разделяться
+   * пробелом, неразрывным пробелом или вторым из знаков {@code ,}/{@code .}; десятичным
+   * считается последний из них. Один и тот же знак, встреченный несколько раз без другого,
+   * разделяет разряды ({@code 1,234,567}), одиночный - дробную часть ({@code 1,234} = 1.234).
+   *
+   * @return сумма или null, если текст пустой
+   * @throws NumberFormatException если текст не является суммой
+   */
+  static BigDecimal parseAmount(CharSequence text) {
+    if (text == null) {
+      return null;
+    }
+    return parseAmount(text, 0, text.length());
+  }
+
+  static BigDecimal parseAmount(CharSequence text, int start, int end) {
+    int decimalSeparator = decimalSeparatorIndex(text, start, end);
+    long unscaled = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean negative = false;
+    boolean signSeen = false;
+
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (isWhitespace(c) || isGroupSpace(c)) {
+        continue;
+      }
+      if (isDigit(c)) {
+        // Не помещающиеся в long суммы собираются заново через BigDecimal
+        if (++digits <= MAX_LONG_DIGITS) {
+          unscaled = unscaled * 10 + (c - '0');
+        }
+        if (decimalSeparator >= 0 && i > decimalSeparator) {
+          scale++;
+        }
+      } else if (c == ',' || c == '.') {
+        boolean grouping = i != decimalSeparator;
+        // Разделитель разрядов стоит после цифры и отличается от десятичного
+        if (grouping && (digits == 0 || (decimalSeparator >= 0 && c == text.charAt(decimalSeparator)))) {
+          throw invalidAmount(text, start, end);
+        }
+      } else if ((c == '-' || c == '+') && !signSeen && digits == 0) {
+        negative = c == '-';
+      } else {
+        throw invalidAmount(text, start, end);
+      }
+      signSeen = true;
+    }
+
+    if (digits == 0) {
+      if (!signSeen) {
+        return null;
+      }
+      throw invalidAmount(text, start, end);
+    }
+    if (digits > MAX_LONG_DIGITS) {
+      return parseLongAmount(text, start, end, decimalSeparator, negative);
+    }
+    return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+  }
+
+  /**
+   * Позиция десятичного разделителя или -1, если дробной части нет.
+   */
+  private static int decimalSeparatorIndex(CharSequence text, int start, int end) {
+    int last = -1;
+    int commas = 0;
+    int dots = 0;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == ',') {
+        commas++;
+        last = i;
+      } else if (c == '.') {
+        dots++;
+        last = i;
+      }
+    }
+    if (last < 0) {
+      return -1;
+    }
+    boolean comma = text.charAt(last) == ',';
+    if ((comma ? commas : dots) > 1 && (comma ? dots : commas) == 0) {
+      return -1;
+    }
+    return last;
+  }
+
+  /**
+   * Вызывается после проверки формата: остается выписать цифры и десятичную точку.
+   */
+  private static BigDecimal parseLongAmount(CharSequence text, int start, int end, int decimalSeparator,
+      boolean negative) {
+    StringBuilder digits = new StringBuilder(end - start + 1);
+    if (negative) {
+      digits.append('-');
+    }
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (isDigit(c)) {
+        digits.append(c);
+      } else if (i == decimalSeparator) {
+        digits.append('.');
+      }
+    }
+    return new BigDecimal(digits.toString());
+  }
+
+  private static NumberFormatException invalidAmount(CharSequence text, int start, int end) {
+    return new NumberFormatException("Некорректная сумма: " + text.subSequence(start, end));
+  }
+
+  static LocalDate parseDate(CharSequence text, int start, int end) {
+    if (end - start == DATE_LENGTH && isDatePrefix(text, start)) {
+      int day = twoDigits(text, start);
+      int month = twoDigits(text, start + 3);
+      int year = twoDigits(text, start + 6) * 100 + twoDigits(text, start + 8);
+      if (day >= 1 && day <= 31 && month >= 1 && month <= 12 && year >= 1) {
+        // Как и DateTimeFormatter в режиме SMART, приводим день к длине месяца
+        int monthLength = Month.of(month).length(Year.isLeap(year));
+        return LocalDate.of(year, month, Math.min(day, monthLength));
+      }
+    }
+    return parseDateFallback(text.subSequence(start, end).toString());
+  }
+
+  private static LocalDate parseDateFallback(String dateStr) {
+    try {
+      return LocalDate.parse(dateStr, DATE_FORMATTER);
+    } catch (Exception e) {
+      log.warn("Ошибка при парсинге даты: {}", dateStr);
+      return LocalDate.now();
+    }
+  }
+
+  /**
+   * Токен вида {@code -?\d+,\d+}.
+   */
+  private static boolean isAmountToken(CharSequence text, int start, int end) {
+    int i = start;
+    if (i < end && text.charAt(i) == '-') {
+      i++;
+    }
+    int integerStart = i;
+    while (i < end && isDigit(text.charAt(i))) {
+      i++;
+    }
+    if (i == integerStart || i >= end || text.charAt(i) != ',') {
+      return false;
+    }
+    int fractionStart = ++i;
+    while (i < end && isDigit(text.charAt(i))) {
+      i++;
+    }
+    return i == end && i > fractionStart;
+  }
+
+  private static boolean isDatePrefix(CharSequence text) {
+    return isDatePrefix(text, 0);
+  }
+
+  private static boolean isDatePrefix(CharSequence text, int start) {
+    return isDigit(text.charAt(start)) && isDigit(text.charAt(start + 1))
+      && text.charAt(start + 2) == '.'
+      && isDigit(text.charAt(start + 3)) && isDigit(text.charAt(start + 4))
+      && text.charAt(start + 5) == '.'
+      && isDigit(text.charAt(start + 6)) && isDigit(text.charAt(start + 7))
+      && isDigit(text.charAt(start + 8)) && isDigit(text.charAt(start + 9));
+  }
+
+  private static int twoDigits(CharSequence text, int start) {
+    return (text.charAt(start) - '0') * 10 + (text.charAt(start + 1) - '0');
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Тот же набор символов, что и {@code \s} в регулярных выражениях Java.
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /**
+   * Неразрывные пробелы, которыми разделяют разряды в выгрузках.
+   */
+  private static boolean isGroupSpace(char c) {
+    return c == '\u00A0' || c == '\u202F' || c == '\u2007';
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
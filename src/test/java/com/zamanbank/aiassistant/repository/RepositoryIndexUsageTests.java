@@ -0,0 +1,223 @@
+package com.zamanbank.aiassistant.repository;
+
+import com.zamanbank.aiassistant.model.Conversation;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.GoalStatus;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по EXPLAIN, что запросы репозиториев используют индексы из миграций Liquibase.
+ * SQL берется у Hibernate через {@link CapturingStatementInspector} при вызове метода
+ * репозитория, поэтому изменение запроса сразу попадает в проверку. Таблицы заполняются
+ * объемом, при котором выборка одного пользователя составляет доли процента строк,
+ * и планировщик выбирает план по собранной статистике. Параметры остаются параметрами:
+ * план строится через {@code EXPLAIN (GENERIC_PLAN)} (PostgreSQL 16).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.zamanbank.aiassistant.repository.CapturingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryIndexUsageTests {
+
+    private static final int USERS = 200;
+    private static final int TRANSACTIONS_PER_USER = 500;
+    private static final int CONVERSATIONS_PER_USER = 10;
+    private static final int MESSAGES_PER_CONVERSATION = 50;
+    private static final int GOALS_PER_USER = 50;
+    private static final int MONTHS = 24;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+
+    // Данные общие для всех тестов класса и только читаются
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private FinancialGoalRepository goalRepository;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository monthlyTotalRepository;
+
+    private User user;
+
+    @BeforeEach
+    void seedData() {
+        if (!seeded) {
+            insertRows();
+            seeded = true;
+        }
+        user = new User();
+        user.setId(jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class));
+    }
+
+    @Test
+    void transactionsByUserUseUserIndex() {
+        // Подходит любой индекс с префиксом user_id
+        assertUsesIndex(sqlOf(() -> transactionRepository.findByUser(user)),
+                "idx_transactions_user_");
+    }
+
+    @Test
+    void transactionsByUserAndTypeUseUserTypeDateIndex() {
+        assertUsesIndex(sqlOf(() -> transactionRepository.findByUserAndType(user, TransactionType.EXPENSE)),
+                "idx_transactions_user_type_date");
+    }
+
+    @Test
+    void transactionsByUserAndPeriodUseUserDateIndex() {
+        assertUsesIndex(sqlOf(() -> transactionRepository.findByUserAndDateBetween(user,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))),
+                "idx_transactions_user_date_id");
+    }
+
+    @Test
+    void dedupKeysUseUserDateIndex() {
+        assertUsesIndex(sqlOf(() -> transactionRepository.findDedupKeys(user,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "job")),
+                "idx_transactions_user_date_id");
+    }
+
+    @Test
+    void historyPageUsesKeysetIndex() {
+        assertUsesIndex(sqlOf(() -> transactionRepository.findHistoryBefore(user,
+                        LocalDate.of(2024, 1, 31), Long.MAX_VALUE, Limit.of(51))),
+                "idx_transactions_user_date_id");
+    }
+
+    @Test
+    void conversationMessagesUseConversationCreatedAtIndex() {
+        Conversation conversation = new Conversation();
+        conversation.setId(jdbcTemplate.queryForObject("SELECT MIN(id) FROM conversations", Long.class));
+        assertUsesIndex(sqlOf(() -> messageRepository.findByConversationOrderByTimestampAsc(conversation)),
+                "idx_messages_conversation_created_at");
+    }
+
+    @Test
+    void goalsByUserAndStatusUseUserStatusTargetDateIndex() {
+        assertUsesIndex(sqlOf(() -> goalRepository.findByUserAndStatus(user, GoalStatus.IN_PROGRESS)),
+                "idx_goals_user_status_target_date");
+        assertUsesIndex(sqlOf(() -> goalRepository.findOverdueGoalsByUser(user)),
+                "idx_goals_user_status_target_date");
+    }
+
+    @Test
+    void monthlyTotalsByUserAndMonthUseKeyIndex() {
+        assertUsesIndex(sqlOf(() -> monthlyTotalRepository.sumByUserAndMonthBetween(user,
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 1))),
+                "uk_monthly_category_totals_key");
+    }
+
+    /**
+     * Первый SQL, выполненный при вызове; следующие - догрузка связей.
+     */
+    private static String sqlOf(Runnable repositoryCall) {
+        CapturingStatementInspector.clear();
+        repositoryCall.run();
+        List<String> statements = CapturingStatementInspector.statements();
+        assertThat(statements).as("SQL вызова репозитория").isNotEmpty();
+        return statements.get(0);
+    }
+
+    private void assertUsesIndex(String sql, String indexName) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql),
+                String.class);
+        String planText = String.join("\n", plan);
+        assertThat(planText)
+                .as("План запроса: %s", sql)
+                .contains(indexName)
+                .doesNotContain("Seq Scan");
+    }
+
+    /**
+     * JDBC-параметры {@code ?} в нумерованные {@code $n}, которые понимает EXPLAIN.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private void insertRows() {
+        jdbcTemplate.update("INSERT INTO users (phone_number, first_name, last_name, email, password) "
+                + "SELECT '+7700' || lpad(g::text, 7, '0'), 'Test', 'User', 'user' || g || '@test.kz', 'secret' "
+                + "FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO transactions (user_id, amount, type, category, description, "
+                + "transaction_date, description_hash) "
+                + "SELECT u.id, (g % 997) * 100 + 50, "
+                + "(ARRAY['EXPENSE', 'INCOME', 'TRANSFER_IN', 'TRANSFER_OUT'])[g % 4 + 1], 'FOOD', "
+                + "'Операция ' || g, DATE '2023-01-01' + g % 730, g "
+                + "FROM users u CROSS JOIN generate_series(1, ?) g", TRANSACTIONS_PER_USER);
+        jdbcTemplate.update("INSERT INTO conversations (user_id, title, type) "
+                + "SELECT u.id, 'Диалог ' || g, 'TEXT' FROM users u CROSS JOIN generate_series(1, ?) g",
+                CONVERSATIONS_PER_USER);
+        jdbcTemplate.update("INSERT INTO messages (conversation_id, content, role, created_at) "
+                + "SELECT c.id, 'Сообщение ' || g, (ARRAY['USER', 'ASSISTANT'])[g % 2 + 1], "
+                + "TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute' "
+                + "FROM conversations c CROSS JOIN generate_series(1, ?) g", MESSAGES_PER_CONVERSATION);
+        jdbcTemplate.update("INSERT INTO financial_goals (user_id, title, type, priority, status, target_amount, "
+                + "current_amount, target_date, progress_percentage) "
+                + "SELECT u.id, 'Цель ' || g, 'TRAVEL', 'MEDIUM', "
+                + "(ARRAY['PLANNING', 'IN_PROGRESS', 'COMPLETED', 'PAUSED', 'CANCELLED'])[g % 5 + 1], "
+                + "100000, 0, DATE '2024-01-01' + g * 30, 0 "
+                + "FROM users u CROSS JOIN generate_series(1, ?) g", GOALS_PER_USER);
+        jdbcTemplate.update("INSERT INTO monthly_category_totals (user_id, month, type, category, total_amount, "
+                + "transactions_count) "
+                + "SELECT u.id, CAST(DATE '2023-01-01' + m * INTERVAL '1 month' AS date), 'EXPENSE', c, 1000, 1 "
+                + "FROM users u CROSS JOIN generate_series(0, ? - 1) m "
+                + "CROSS JOIN unnest(ARRAY['FOOD', 'TRANSPORT', 'HEALTHCARE', 'EDUCATION', 'ENTERTAINMENT', "
+                + "'SHOPPING', 'UTILITIES', 'INSURANCE', 'TRAVEL', 'CLOTHING']) c", MONTHS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
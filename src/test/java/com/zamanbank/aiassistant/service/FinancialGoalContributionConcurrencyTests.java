@@ -0,0 +1,176 @@
+package com.zamanbank.aiassistant.service;
+
+import com.zamanbank.aiassistant.model.FinancialGoal;
+import com.zamanbank.aiassistant.model.User;
+import com.zamanbank.aiassistant.model.enums.GoalStatus;
+import com.zamanbank.aiassistant.repository.FinancialGoalRepository;
+import com.zamanbank.aiassistant.service.impl.FinancialGoalServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельные пополнения одной цели на настоящем PostgreSQL: ни одно успешное пополнение
+ * не теряется, сумма не превышает целевую, а цель завершается ровно при ее достижении.
+ * Тест не транзакционный, чтобы каждое пополнение коммитилось в своем потоке.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FinancialGoalServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class FinancialGoalContributionConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 2);
+    }
+
+    @Autowired
+    private FinancialGoalServiceImpl goalService;
+
+    @Autowired
+    private FinancialGoalRepository goalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (phone_number, first_name, last_name, email, password, role, status, created_at, updated_at) "
+                        + "VALUES ('+77000000000', 'Test', 'User', 'goals@test.kz', 'secret', 'CLIENT', 'ACTIVE', "
+                        + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) RETURNING id",
+                Long.class);
+        user = new User();
+        user.setId(userId);
+        ReflectionTestUtils.setField(goalService, "atomicUpdate", true);
+        ReflectionTestUtils.setField(goalService, "maxRetries", 10);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM financial_goals");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void atomicUpdateKeepsEveryContribution() throws Exception {
+        Long goalId = createGoal(new BigDecimal("1000.00"));
+
+        int succeeded = contributeConcurrently(goalId, 25);
+
+        FinancialGoal goal = goalRepository.findById(goalId).orElseThrow();
+        assertThat(succeeded).isEqualTo(THREADS * 25);
+        assertThat(goal.getCurrentAmount()).isEqualByComparingTo(BigDecimal.valueOf(THREADS * 25L));
+        assertThat(goal.getStatus()).isEqualTo(GoalStatus.IN_PROGRESS);
+        assertThat(goal.getVersion()).isEqualTo(THREADS * 25L);
+    }
+
+    @Test
+    void atomicUpdateCapsAtTargetAndCompletesGoal() throws Exception {
+        Long goalId = createGoal(new BigDecimal("100.00"));
+
+        int succeeded = contributeConcurrently(goalId, 25);
+
+        FinancialGoal goal = goalRepository.findById(goalId).orElseThrow();
+        // После завершения цели пополнения отклоняются
+        assertThat(succeeded).isEqualTo(100);
+        assertThat(goal.getCurrentAmount()).isEqualByComparingTo("100.00");
+        assertThat(goal.getStatus()).isEqualTo(GoalStatus.COMPLETED);
+    }
+
+    @Test
+    void optimisticRetryKeepsEveryContribution() throws Exception {
+        ReflectionTestUtils.setField(goalService, "atomicUpdate", false);
+        // Под такой нагрузкой конфликты постоянны; проверяется отсутствие потерянных обновлений
+        ReflectionTestUtils.setField(goalService, "maxRetries", 1000);
+        Long goalId = createGoal(new BigDecimal("1000.00"));
+
+        int succeeded = contributeConcurrently(goalId, 5);
+
+        FinancialGoal goal = goalRepository.findById(goalId).orElseThrow();
+        assertThat(succeeded).isEqualTo(THREADS * 5);
+        assertThat(goal.getCurrentAmount()).isEqualByComparingTo(BigDecimal.valueOf(THREADS * 5L));
+    }
+
+    private Long createGoal(BigDecimal targetAmount) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO financial_goals (user_id, title, type, priority, status, target_amount, current_amount, "
+                        + "target_date, progress_percentage, created_at, updated_at) "
+                        + "VALUES (?, 'Отпуск', 'TRAVEL', 'MEDIUM', 'IN_PROGRESS', ?, 0, CURRENT_DATE + 365, 0, "
+                        + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) RETURNING id",
+                Long.class, user.getId(), targetAmount);
+    }
+
+    /**
+     * Каждый поток после общего старта вносит по 1.00 указанное число раз.
+     *
+     * @return число успешных пополнений
+     */
+    private int contributeConcurrently(Long goalId, int contributionsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < contributionsPerThread; j++) {
+                        try {
+                            goalService.contributeToGoal(goalId, BigDecimal.ONE, user);
+                            succeeded.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            // Цель уже завершена
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded.intValue();
+    }
+}
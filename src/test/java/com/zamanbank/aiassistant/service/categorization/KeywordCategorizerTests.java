@@ -0,0 +1,50 @@
+package com.zamanbank.aiassistant.service.categorization;
+
+import com.zamanbank.aiassistant.model.enums.TransactionCategory;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordCategorizerTests {
+
+    @Test
+    void transferInRuleAppliesToIncomingOperationsOnly() {
+        KeywordCategorizer categorizer = new KeywordCategorizer(List.of(
+                new CategoryRule(TransactionCategory.RENTAL_INCOME, TransactionType.TRANSFER_IN, 100,
+                        List.of("kaspi перевод"))));
+
+        assertThat(categorizer.categorize("Kaspi перевод от Арман", TransactionType.TRANSFER_IN))
+                .isEqualTo(TransactionCategory.RENTAL_INCOME);
+        assertThat(categorizer.categorize("Kaspi перевод от Арман", TransactionType.INCOME))
+                .isEqualTo(TransactionCategory.RENTAL_INCOME);
+        assertThat(categorizer.categorize("Kaspi перевод для Арман", TransactionType.TRANSFER_OUT)).isNull();
+        assertThat(categorizer.categorize("Kaspi перевод для Арман", TransactionType.EXPENSE)).isNull();
+    }
+
+    @Test
+    void expenseRuleDoesNotApplyToIncomingOperations() {
+        KeywordCategorizer categorizer = new KeywordCategorizer(List.of(
+                new CategoryRule(TransactionCategory.SHOPPING, TransactionType.EXPENSE, 100, List.of("sulpak"))));
+
+        assertThat(categorizer.categorize("SULPAK Алматы", TransactionType.TRANSFER_OUT))
+                .isEqualTo(TransactionCategory.SHOPPING);
+        assertThat(categorizer.categorize("SULPAK возврат", TransactionType.TRANSFER_IN)).isNull();
+    }
+
+    @Test
+    void keywordsMatchWholeWordsAndStemsOnly() {
+        KeywordCategorizer categorizer = new KeywordCategorizer(List.of(
+                new CategoryRule(TransactionCategory.OTHER_EXPENSE, null, 10, List.of("atm")),
+                new CategoryRule(TransactionCategory.HEALTHCARE, null, 100, List.of("медицин*"))));
+
+        assertThat(categorizer.categorize("ATM HALYK 0123", TransactionType.EXPENSE))
+                .isEqualTo(TransactionCategory.OTHER_EXPENSE);
+        assertThat(categorizer.categorize("DENTAL TREATMENT", TransactionType.EXPENSE)).isNull();
+        assertThat(categorizer.categorize("Медицинский центр", TransactionType.EXPENSE))
+                .isEqualTo(TransactionCategory.HEALTHCARE);
+        assertThat(categorizer.categorize("BIOMEDICINA", TransactionType.EXPENSE)).isNull();
+    }
+}
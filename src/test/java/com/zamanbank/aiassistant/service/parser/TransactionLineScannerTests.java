@@ -0,0 +1,116 @@
+package com.zamanbank.aiassistant.service.parser;
+
+import com.zamanbank.aiassistant.dto.bank.BankTransaction;
+import com.zamanbank.aiassistant.model.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionLineScannerTests {
+
+    @Test
+    void signDecidesTransactionType() {
+        BankTransaction expense = TransactionLineScanner.parseTransactionLine("01.02.2024 Magnum Almaty -1234,56");
+        assertThat(expense.getOperationDate()).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(expense.getDescription()).isEqualTo("Magnum Almaty");
+        assertThat(expense.getAmount()).isEqualByComparingTo("1234.56");
+        assertThat(expense.getType()).isEqualTo(TransactionType.EXPENSE);
+
+        BankTransaction explicitPlus = TransactionLineScanner.parseTransactionLine("01.02.2024 Перевод от Арман +5000,00");
+        assertThat(explicitPlus.getAmount()).isEqualByComparingTo("5000.00");
+        assertThat(explicitPlus.getType()).isEqualTo(TransactionType.INCOME);
+
+        BankTransaction unsigned = TransactionLineScanner.parseTransactionLine("01.02.2024 Kaspi Gold 5000,00");
+        assertThat(unsigned.getType()).isEqualTo(TransactionType.INCOME);
+    }
+
+    @Test
+    void signIsAcceptedOnlyBeforeDigits() {
+        assertThat(TransactionLineScanner.parseAmount("-15,50")).isEqualByComparingTo("-15.50");
+        assertThat(TransactionLineScanner.parseAmount("+15,50")).isEqualByComparingTo("15.50");
+        assertThat(TransactionLineScanner.parseAmount("- 15,50")).isEqualByComparingTo("-15.50");
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount("15,50-"))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount("--15"))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount("-"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void commaAndDotSeparators() {
+        assertThat(TransactionLineScanner.parseAmount("1234,56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1234.56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1 234,56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1\u00A0234,56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1,234.56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1.234,56")).isEqualByComparingTo("1234.56");
+        assertThat(TransactionLineScanner.parseAmount("1,234,567")).isEqualByComparingTo("1234567");
+        assertThat(TransactionLineScanner.parseAmount("1.234.567,89")).isEqualByComparingTo("1234567.89");
+        // Одиночный разделитель всегда десятичный
+        assertThat(TransactionLineScanner.parseAmount("1,234")).isEqualByComparingTo("1.234");
+        assertThat(TransactionLineScanner.parseAmount("1234,56").scale()).isEqualTo(2);
+    }
+
+    @Test
+    void mixedOrMisplacedSeparatorsAreRejected() {
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount("1,2.3,4"))
+                .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount(".1,5"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void amountsLongerThanLongAreParsedExactly() {
+        assertThat(TransactionLineScanner.parseAmount("-12345678901234567890,12"))
+                .isEqualByComparingTo("-12345678901234567890.12");
+        assertThat(TransactionLineScanner.parseAmount("1 234 567 890 123 456 789 012"))
+                .isEqualByComparingTo("1234567890123456789012");
+
+        BankTransaction transaction = TransactionLineScanner.parseTransactionLine(
+                "01.02.2024 Air Astana -12345678901234567890,12");
+        assertThat(transaction.getAmount()).isEqualByComparingTo("12345678901234567890.12");
+        assertThat(transaction.getType()).isEqualTo(TransactionType.EXPENSE);
+    }
+
+    @Test
+    void trailingCurrencyIsNotPartOfAmount() {
+        assertThat(TransactionLineScanner.isTransactionLine("01.02.2024 Magnum Almaty -1234,56 KZT")).isFalse();
+        assertThatThrownBy(() -> TransactionLineScanner.parseAmount("-1234,56 KZT"))
+                .isInstanceOf(NumberFormatException.class);
+
+        // Парсеры с символом валюты передают только диапазон до него
+        String line = "- 1 234,56 ₸";
+        assertThat(TransactionLineScanner.parseAmount(line, 0, line.indexOf('₸')))
+                .isEqualByComparingTo(new BigDecimal("-1234.56"));
+    }
+
+    @Test
+    void linesWithoutAmountAreNotTransactions() {
+        assertThat(TransactionLineScanner.isTransactionLine("Дата проведения операции Описание Сумма")).isFalse();
+        assertThat(TransactionLineScanner.isTransactionLine("01.02.2024 Magnum Almaty")).isFalse();
+        assertThat(TransactionLineScanner.isTransactionLine("01.02.2024 Magnum Almaty 1234")).isFalse();
+        assertThat(TransactionLineScanner.isTransactionLine("01.02.2024 Magnum Almaty 1234.56")).isFalse();
+        assertThat(TransactionLineScanner.parseAmount("")).isNull();
+        assertThat(TransactionLineScanner.parseAmount("   ")).isNull();
+        assertThat(TransactionLineScanner.parseAmount(null)).isNull();
+    }
+
+    @Test
+    void amountTokensInsideDescriptionAreDropped() {
+        BankTransaction transaction = TransactionLineScanner.parseTransactionLine(
+                "01.02.2024 Magnum Almaty 100,00 -1234,56");
+        assertThat(transaction.getDescription()).isEqualTo("Magnum Almaty");
+        assertThat(transaction.getAmount()).isEqualByComparingTo("1234.56");
+    }
+
+    @Test
+    void lineWithoutDescriptionIsSkipped() {
+        assertThat(TransactionLineScanner.isTransactionLine("01.02.2024 Magnum -1,00")).isTrue();
+        assertThat(TransactionLineScanner.parseTransactionLine("01.02.2024 Magnum -1,00")).isNull();
+    }
+}